@@ -31,13 +31,7 @@ package com.github.gv2011.asn1;
 
 import static com.github.gv2011.util.bytes.ByteUtils.emptyBytes;
 import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
-import static com.github.gv2011.util.ex.Exceptions.call;
 
-import java.io.ByteArrayOutputStream;
-
-import java.io.InputStream;
-
-import com.github.gv2011.asn1.util.io.Streams;
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
@@ -166,18 +160,15 @@ public abstract class ASN1BitString
     @Override
     public String getString()
     {
-        final StringBuffer          buf = new StringBuffer("#");
-        final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
-        final ASN1OutputStream      aOut = new ASN1OutputStream(bOut);
-
-        aOut.writeObject(this);
+        final StringBuffer buf = new StringBuffer("#");
+        final Bytes        string = getEncoded();
 
-        final byte[]    string = bOut.toByteArray();
-
-        for (int i = 0; i != string.length; i++)
+        for (int i = 0; i != string.size(); i++)
         {
-            buf.append(table[(string[i] >>> 4) & 0xf]);
-            buf.append(table[string[i] & 0xf]);
+            final byte b = string.getByte(i);
+
+            buf.append(table[(b >>> 4) & 0xf]);
+            buf.append(table[b & 0xf]);
         }
 
         return buf.toString();
@@ -268,33 +259,29 @@ public abstract class ASN1BitString
         else return data;
     }
 
-    static ASN1BitString fromInputStream(final int length, final InputStream stream)
+    static ASN1BitString fromContents(final Bytes contents)
     {
-        if (length < 1)
+        if (contents.size() < 1)
         {
             throw new IllegalArgumentException("truncated BIT STRING detected");
         }
 
-        final int padBits = call(stream::read);
-        final byte[] data = new byte[length - 1];
+        final int padBits = contents.getByte(0) & 0xff;
+        final Bytes data = contents.subList(1);
 
-        if (data.length != 0)
+        if (data.size() != 0)
         {
-            if (Streams.readFully(stream, data) != data.length)
-            {
-                throw new ASN1Exception("EOF encountered in middle of BIT STRING");
-            }
-
             if (padBits > 0 && padBits < 8)
             {
-                if (data[data.length - 1] != (byte)(data[data.length - 1] & (0xff << padBits)))
+                final byte last = data.getByte(data.size() - 1);
+                if (last != (byte)(last & (0xff << padBits)))
                 {
-                    return new DLBitString(newBytes(data), padBits);
+                    return new DLBitString(data, padBits);
                 }
             }
         }
 
-        return new DERBitString(newBytes(data), padBits);
+        return new DERBitString(data, padBits);
     }
 
     public ASN1Primitive getLoadedObject()
@@ -0,0 +1,218 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * A pull cursor over an encoding, in the style of a StAX reader.
+ * <p>
+ * The cursor walks the TLV structure of its input without building any objects:
+ * {@link #next()} moves to the following element on the current level, {@link #enter()}
+ * descends into the current constructed element and {@link #exit()} returns to the
+ * enclosing level. Elements which are not entered are skipped by their length, indefinite
+ * length (BER) elements are skipped by scanning their headers.
+ * </p><p>
+ * A cursor is not thread safe.
+ * </p>
+ */
+public final class ASN1Cursor
+{
+    private final Bytes       data;
+    private final ASN1Scanner scanner;
+
+    /**
+     * Create a cursor over a sequence of one or more encoded objects.
+     *
+     * @param data the encoding to walk.
+     */
+    public ASN1Cursor(final Bytes data)
+    {
+        this.data = data;
+        scanner = new ASN1Scanner(data.size(), 4)
+        {
+            @Override
+            int byteAt(final long p)
+            {
+                return data.getByte((int)p) & 0xff;
+            }
+        };
+    }
+
+    /**
+     * Move to the next element on the current level, skipping the rest of the
+     * current element if it has not been entered.
+     *
+     * @return true if there is a next element, false at the end of the current level.
+     */
+    public boolean next()
+    {
+        return scanner.next();
+    }
+
+    /**
+     * Skip the current element, the next call to {@link #next()} will move to its successor.
+     */
+    public void skip()
+    {
+        scanner.skip();
+    }
+
+    /**
+     * Descend into the current element, which has to be constructed. The cursor is then
+     * positioned before the first child, call {@link #next()} to move to it.
+     */
+    public void enter()
+    {
+        scanner.enter();
+    }
+
+    /**
+     * Leave the current level, skipping any remaining children. The cursor is then
+     * positioned after the element that was entered, call {@link #next()} to move to
+     * its successor.
+     */
+    public void exit()
+    {
+        scanner.exit();
+    }
+
+    /**
+     * @return the nesting depth of the current level, 0 for the top level.
+     */
+    public int depth()
+    {
+        return scanner.depth();
+    }
+
+    /**
+     * Return the class of the current element's tag.
+     *
+     * @return 0 for universal, {@link BERTags#APPLICATION}, {@link BERTags#TAGGED} for context
+     * specific, or APPLICATION | TAGGED for private tags.
+     */
+    public int tagClass()
+    {
+        return scanner.tagClass();
+    }
+
+    /**
+     * @return the tag number of the current element.
+     */
+    public int tagNo()
+    {
+        return scanner.tagNo();
+    }
+
+    /**
+     * @return true if the current element uses the constructed encoding.
+     */
+    public boolean isConstructed()
+    {
+        return scanner.isConstructed();
+    }
+
+    /**
+     * @return the offset of the current element's identifier octets.
+     */
+    public int headerOffset()
+    {
+        return (int)scanner.headerOffset();
+    }
+
+    /**
+     * @return the offset of the current element's contents octets.
+     */
+    public int contentOffset()
+    {
+        return (int)scanner.contentOffset();
+    }
+
+    /**
+     * @return the length of the current element's contents, or -1 for indefinite-length encoding.
+     */
+    public int contentLength()
+    {
+        return (int)scanner.contentLength();
+    }
+
+    /**
+     * Return the complete encoding of the current element, taken with {@link Bytes#subList(int, int)}
+     * of the input, so whether it shares memory with the input depends on the {@link Bytes} implementation.
+     *
+     * @return the identifier, length and contents octets of the current element.
+     */
+    public Bytes getEncoded()
+    {
+        return data.subList(headerOffset(), (int)scanner.elementEnd());
+    }
+
+    /**
+     * Decode the current element, taking primitive contents as sub lists of the input as
+     * {@link ASN1InputStream#ASN1InputStream(Bytes, boolean, boolean)} does.
+     *
+     * @return the current element as an ASN.1 object.
+     */
+    public ASN1Primitive getObject()
+    {
+        return ASN1Primitive.fromBytes(getEncoded(), true);
+    }
+
+    /**
+     * Find the children of the current element with a scan of their headers, leaving the
+     * cursor after the element.
+     *
+     * @return the offset of each child, followed by the offset the last child ends at.
+     */
+    int[] childOffsets()
+    {
+        scanner.enter();
+
+        int[] offsets = new int[16];
+        int count = 0;
+
+        while (scanner.next())
+        {
+            if (count + 1 == offsets.length)
+            {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[count++] = (int)scanner.headerOffset();
+        }
+        // at the end of the level, or on its end-of-contents octets
+        offsets[count] = (int)scanner.position();
+
+        scanner.exit();
+
+        return Arrays.copyOf(offsets, count + 1);
+    }
+}
@@ -29,22 +29,63 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.util.Enumeration;
-import java.util.Vector;
+import java.util.Arrays;
 
 /**
  * Mutable class for building ASN.1 constructed objects.
+ * <p>
+ * The elements are kept in a plain array which the constructed object takes over
+ * when it is built, so building does not copy. Adding to a vector whose array has
+ * been handed over copies the array first.
+ * </p>
  */
-@SuppressWarnings("rawtypes")
 public class ASN1EncodableVector
 {
-    private final Vector v = new Vector();
+    static final ASN1Encodable[] EMPTY_ELEMENTS = new ASN1Encodable[0];
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private ASN1Encodable[] elements;
+    private int count;
+
+    // true once the array has been handed over and must not be written to
+    private boolean shared;
 
     /**
      * Base constructor.
      */
     public ASN1EncodableVector()
     {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a vector with room for the given number of elements.
+     *
+     * @param initialCapacity the number of elements expected.
+     */
+    public ASN1EncodableVector(final int initialCapacity)
+    {
+        if (initialCapacity < 0)
+        {
+            throw new IllegalArgumentException("'initialCapacity' must not be negative");
+        }
+
+        this.elements = initialCapacity == 0 ? EMPTY_ELEMENTS : new ASN1Encodable[initialCapacity];
+    }
+
+    private ASN1EncodableVector(final ASN1Encodable[] elements)
+    {
+        this.elements = elements;
+        this.count = elements.length;
+    }
+
+    /**
+     * Create a vector taking over a filled array, which the caller must not modify afterwards.
+     */
+    static ASN1EncodableVector wrap(final ASN1Encodable[] elements)
+    {
+        return new ASN1EncodableVector(elements);
     }
 
     /**
@@ -52,10 +93,14 @@ public class ASN1EncodableVector
      *
      * @param obj the encodable to add.
      */
-    @SuppressWarnings("unchecked")
     public void add(final ASN1Encodable obj)
     {
-        v.addElement(obj);
+        if (shared || count == elements.length)
+        {
+            reallocate(count + 1);
+        }
+
+        elements[count++] = obj;
     }
 
     /**
@@ -63,13 +108,22 @@ public class ASN1EncodableVector
      *
      * @param other the vector to add.
      */
-    @SuppressWarnings("unchecked")
     public void addAll(final ASN1EncodableVector other)
     {
-        for (final Enumeration en = other.v.elements(); en.hasMoreElements();)
+        final int otherCount = other.count;
+
+        if (otherCount == 0)
+        {
+            return;
+        }
+
+        if (shared || count + otherCount > elements.length)
         {
-            v.addElement(en.nextElement());
+            reallocate(count + otherCount);
         }
+
+        System.arraycopy(other.elements, 0, elements, count, otherCount);
+        count += otherCount;
     }
 
     /**
@@ -80,7 +134,12 @@ public class ASN1EncodableVector
      */
     public ASN1Encodable get(final int i)
     {
-        return (ASN1Encodable)v.elementAt(i);
+        if (i >= count)
+        {
+            throw new ArrayIndexOutOfBoundsException(i + " >= " + count);
+        }
+
+        return elements[i];
     }
 
     /**
@@ -90,6 +149,30 @@ public class ASN1EncodableVector
      */
     public int size()
     {
-        return v.size();
+        return count;
+    }
+
+    /**
+     * Hand over the backing array, valid up to {@link #size()}. The caller must not
+     * modify it, later additions to this vector work on a copy.
+     */
+    ASN1Encodable[] takeElements()
+    {
+        if (count == 0)
+        {
+            return EMPTY_ELEMENTS;
+        }
+
+        shared = true;
+
+        return elements;
+    }
+
+    private void reallocate(final int minCapacity)
+    {
+        final int capacity = Math.max(minCapacity, elements.length + (elements.length >> 1));
+
+        elements = Arrays.copyOf(elements, Math.max(capacity, DEFAULT_CAPACITY));
+        shared = false;
     }
 }
@@ -33,15 +33,33 @@ import static com.github.gv2011.util.bytes.ByteUtils.fromBigInteger;
 
 import java.math.BigInteger;
 
+import com.github.gv2011.util.ann.Nullable;
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
  * Class representing the ASN.1 ENUMERATED type.
+ * <p>
+ * Values in the range of a long are held as a long, as for {@link ASN1Integer}.
+ * </p>
  */
 public class ASN1Enumerated
     extends ASN1Primitive
 {
-    private final Bytes bytes;
+    private static final ASN1Enumerated[] cache = new ASN1Enumerated[IntegerCodec.CACHE_MAX - IntegerCodec.CACHE_MIN + 1];
+
+    static
+    {
+        for (int i = 0; i != cache.length; i++)
+        {
+            cache[i] = new ASN1Enumerated(IntegerCodec.CACHE_MIN + i);
+        }
+    }
+
+    // the contents as given, null if the value was supplied as a long
+    private final @Nullable Bytes bytes;
+
+    private final boolean isLong;
+    private final long value;
 
     /**
      * return an enumerated from the passed in object
@@ -99,12 +117,28 @@ public class ASN1Enumerated
         }
     }
 
+    /**
+     * Return an enumerated for value, small values are shared.
+     *
+     * @param value the value of the enumerated.
+     * @return an ASN1Enumerated instance.
+     */
+    public static ASN1Enumerated valueOf(final long value){
+      return IntegerCodec.isCached(value) ? cache[(int)value - IntegerCodec.CACHE_MIN] : new ASN1Enumerated(value);
+    }
+
     public ASN1Enumerated(final int value){
-      this(BigInteger.valueOf(value));
+      this((long)value);
+    }
+
+    public ASN1Enumerated(final long value){
+      bytes = null;
+      isLong = true;
+      this.value = value;
     }
 
     public ASN1Enumerated(final BigInteger value){
-      bytes = fromBigInteger(value);
+      this(fromBigInteger(value));
     }
 
     /**
@@ -114,10 +148,54 @@ public class ASN1Enumerated
      */
     public ASN1Enumerated(final Bytes bytes){
       this.bytes = bytes;
+      isLong = IntegerCodec.fitsLong(bytes);
+      value = isLong ? IntegerCodec.toLong(bytes) : 0;
     }
 
     public BigInteger getValue(){
-      return new BigInteger(bytes.toByteArray());
+      return isLong ? BigInteger.valueOf(value) : new BigInteger(bytes.toByteArray());
+    }
+
+    /**
+     * Return the value as a long.
+     *
+     * @return the value of this enumerated.
+     * @exception ArithmeticException if the value does not fit in a long.
+     */
+    public long longValueExact()
+    {
+        if (!isLong)
+        {
+            throw new ArithmeticException("ENUMERATED out of long range");
+        }
+
+        return value;
+    }
+
+    /**
+     * Return the value as an int.
+     *
+     * @return the value of this enumerated.
+     * @exception ArithmeticException if the value does not fit in an int.
+     */
+    public int intValueExact()
+    {
+        if (!isLong || (int)value != value)
+        {
+            throw new ArithmeticException("ENUMERATED out of int range");
+        }
+
+        return (int)value;
+    }
+
+    private int contentLength()
+    {
+        return bytes == null ? IntegerCodec.length(value) : bytes.size();
+    }
+
+    private byte contentByte(final int i)
+    {
+        return bytes == null ? IntegerCodec.byteAt(value, IntegerCodec.length(value), i) : bytes.getByte(i);
     }
 
     @Override
@@ -129,14 +207,23 @@ public class ASN1Enumerated
     @Override
     int encodedLength()
     {
-        return 1 + StreamUtil.calculateBodyLength(bytes.size()) + bytes.size();
+        final int length = contentLength();
+
+        return 1 + StreamUtil.calculateBodyLength(length) + length;
     }
 
     @Override
     void encode(
         final ASN1OutputStream out)
     {
-        out.writeEncoded(BERTags.ENUMERATED, bytes);
+        if (bytes == null)
+        {
+            out.writeEncoded(BERTags.ENUMERATED, value);
+        }
+        else
+        {
+            out.writeEncoded(BERTags.ENUMERATED, bytes);
+        }
     }
 
     @Override
@@ -150,41 +237,42 @@ public class ASN1Enumerated
 
         final ASN1Enumerated other = (ASN1Enumerated)o;
 
-        return bytes.equals(other.bytes);
+        if (bytes != null && other.bytes != null)
+        {
+            return bytes.equals(other.bytes);
+        }
+
+        // equal values held as longs have equal encodings of equal length
+        return isLong && other.isLong && value == other.value && contentLength() == other.contentLength();
     }
 
     @Override
     public int hashCode(){
-      return bytes.hashCode();
+      final int length = contentLength();
+      int hash = 0;
+      for (int i = 0; i != length; i++)
+      {
+          hash = 31 * hash + contentByte(i);
+      }
+      return hash;
     }
 
-    private static ASN1Enumerated[] cache = new ASN1Enumerated[12];
-
     static ASN1Enumerated fromOctetString(final Bytes enc)
     {
-        if (enc.size() > 1)
-        {
-            return new ASN1Enumerated(enc);
-        }
-
         if (enc.size() == 0)
         {
             throw new IllegalArgumentException("ENUMERATED has zero length");
         }
-        final int value = enc.getByte(0) & 0xff;
 
-        if (value >= cache.length)
+        if (IntegerCodec.fitsLong(enc) && IntegerCodec.isMinimal(enc))
         {
-            return new ASN1Enumerated(enc);
-        }
-
-        ASN1Enumerated possibleMatch = cache[value];
-
-        if (possibleMatch == null)
-        {
-            possibleMatch = cache[value] = new ASN1Enumerated(enc);
+            final long value = IntegerCodec.toLong(enc);
+            if (IntegerCodec.isCached(value))
+            {
+                return cache[(int)value - IntegerCodec.CACHE_MIN];
+            }
         }
 
-        return possibleMatch;
+        return new ASN1Enumerated(enc);
     }
 }
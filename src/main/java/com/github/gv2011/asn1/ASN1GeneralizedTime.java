@@ -30,11 +30,13 @@ package com.github.gv2011.asn1;
 
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.Locale;
-import java.util.SimpleTimeZone;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 
 import com.github.gv2011.asn1.util.Strings;
 import com.github.gv2011.util.bytes.Bytes;
@@ -47,8 +49,12 @@ import com.github.gv2011.util.bytes.Bytes;
  */
 public class ASN1GeneralizedTime
     extends ASN1Primitive
+    implements ASN1Time
 {
-    private final Bytes time;
+    final Bytes time;
+
+    // parsed on first use, racing threads compute the same value
+    private volatile Instant instant;
 
     /**
      * return a generalized time from the passed in object
@@ -121,9 +127,9 @@ public class ASN1GeneralizedTime
         this.time = Strings.toByteArray(time);
         try
         {
-            getDate();
+            getInstant();
         }
-        catch (final ParseException e)
+        catch (final IllegalArgumentException e)
         {
             throw new IllegalArgumentException("invalid date string: " + e.getMessage());
         }
@@ -137,16 +143,38 @@ public class ASN1GeneralizedTime
     public ASN1GeneralizedTime(
         final Date time)
     {
-        final SimpleDateFormat dateF = new SimpleDateFormat("yyyyMMddHHmmss'Z'");
+        this.time = TimeCodec.formatGeneralizedTime(Math.floorDiv(time.getTime(), 1000), 0);
+    }
 
-        dateF.setTimeZone(new SimpleTimeZone(0, "Z"));
+    /**
+     * Constructor from an instant, the fractional seconds are kept with trailing
+     * zeroes removed.
+     *
+     * @param time the instant of interest.
+     * @throws IllegalArgumentException if the year is outside 0000 to 9999.
+     */
+    public ASN1GeneralizedTime(
+        final Instant time)
+    {
+        this.time = TimeCodec.formatGeneralizedTime(time.getEpochSecond(), time.getNano());
+        this.instant = time;
+    }
 
-        this.time = Strings.toByteArray(dateF.format(time));
+    /**
+     * Constructor from milliseconds since the epoch, any milliseconds are kept
+     * as a fraction.
+     *
+     * @param epochMillis the time of interest.
+     */
+    public ASN1GeneralizedTime(
+        final long epochMillis)
+    {
+        this(Instant.ofEpochMilli(epochMillis));
     }
 
     /**
-     * Base constructor from a java.util.date and Locale - you may need to use this if the default locale
-     * doesn't use a Gregorian calender so that the GeneralizedTime produced is compatible with other ASN.1 implementations.
+     * Base constructor from a java.util.date and Locale. The time is always formatted with the
+     * Gregorian calendar, so the locale has no effect.
      *
      * @param time a date object representing the time of interest.
      * @param locale an appropriate Locale for producing an ASN.1 GeneralizedTime value.
@@ -155,11 +183,7 @@ public class ASN1GeneralizedTime
         final Date time,
         final Locale locale)
     {
-        final SimpleDateFormat dateF = new SimpleDateFormat("yyyyMMddHHmmss'Z'", locale);
-
-        dateF.setTimeZone(new SimpleTimeZone(0, "Z"));
-
-        this.time = Strings.toByteArray(dateF.format(time));
+        this(time);
     }
 
     ASN1GeneralizedTime(
@@ -272,98 +296,82 @@ public class ASN1GeneralizedTime
     public Date getDate()
         throws ParseException
     {
-        SimpleDateFormat dateF;
-        final String stime = Strings.fromByteArray(time);
-        String d = stime;
-
-        if (stime.endsWith("Z"))
+        try
         {
-            if (hasFractionalSeconds())
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmss.SSS'Z'");
-            }
-            else
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmss'Z'");
-            }
-
-            dateF.setTimeZone(new SimpleTimeZone(0, "Z"));
+            return new Date(getEpochMillis());
         }
-        else if (stime.indexOf('-') > 0 || stime.indexOf('+') > 0)
+        catch (final IllegalArgumentException e)
         {
-            d = getTime();
-            if (hasFractionalSeconds())
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmss.SSSz");
-            }
-            else
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmssz");
-            }
-
-            dateF.setTimeZone(new SimpleTimeZone(0, "Z"));
+            throw new ParseException(e.getMessage(), 0);
         }
-        else
-        {
-            if (hasFractionalSeconds())
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmss.SSS");
-            }
-            else
-            {
-                dateF = new SimpleDateFormat("yyyyMMddHHmmss");
-            }
+    }
 
-            dateF.setTimeZone(new SimpleTimeZone(0, TimeZone.getDefault().getID()));
-        }
+    /**
+     * Return the time as an instant. A time without a zone designator is taken as UTC.
+     *
+     * @return the instant this time represents.
+     * @throws IllegalArgumentException if the time string is malformed.
+     */
+    @Override
+    public Instant getInstant()
+    {
+        Instant result = instant;
 
-        if (hasFractionalSeconds())
+        if (result == null)
         {
-            // java misinterprets extra digits as being milliseconds...
-            String frac = d.substring(14);
-            int index;
-            for (index = 1; index < frac.length(); index++)
-            {
-                final char ch = frac.charAt(index);
-                if (!('0' <= ch && ch <= '9'))
-                {
-                    break;
-                }
-            }
-
-            if (index - 1 > 3)
-            {
-                frac = frac.substring(0, 4) + frac.substring(index);
-                d = d.substring(0, 14) + frac;
-            }
-            else if (index - 1 == 1)
-            {
-                frac = frac.substring(0, index) + "00" + frac.substring(index);
-                d = d.substring(0, 14) + frac;
-            }
-            else if (index - 1 == 2)
-            {
-                frac = frac.substring(0, index) + "0" + frac.substring(index);
-                d = d.substring(0, 14) + frac;
-            }
+            result = TimeCodec.parseGeneralizedTime(time);
+            instant = result;
         }
 
-        return dateF.parse(d);
+        return result;
     }
 
-    private boolean hasFractionalSeconds()
+    /**
+     * Return the time as an offset date time, using the offset given in the time string.
+     *
+     * @return the time with its original offset.
+     * @throws IllegalArgumentException if the time string is malformed.
+     */
+    public OffsetDateTime getOffsetDateTime()
     {
-        for (int i = 0; i != time.size(); i++)
-        {
-            if (time.getByte(i) == '.')
-            {
-                if (i == 14)
-                {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getInstant().atOffset(ZoneOffset.ofTotalSeconds(TimeCodec.zoneOffsetSeconds(time)));
+    }
+
+    /**
+     * Return the time in milliseconds since the epoch, any finer fraction is truncated.
+     *
+     * @throws IllegalArgumentException if the time string is malformed.
+     */
+    public long getEpochMillis()
+    {
+        return getInstant().toEpochMilli();
+    }
+
+    /**
+     * Return the time in nanoseconds since the epoch.
+     *
+     * @throws IllegalArgumentException if the time string is malformed.
+     * @throws ArithmeticException if the time is too far from the epoch for a long.
+     */
+    public long getEpochNanos()
+    {
+        final Instant result = getInstant();
+
+        return Math.addExact(Math.multiplyExact(result.getEpochSecond(), TimeUnit.SECONDS.toNanos(1)), result.getNano());
+    }
+
+    @Override
+    public int compareTo(
+        final ASN1Time other)
+    {
+        return TimeCodec.compare(this, other);
+    }
+
+    @Override
+    public int compareTo(
+        final Instant instant)
+    {
+        return getInstant().compareTo(instant);
     }
 
     @Override
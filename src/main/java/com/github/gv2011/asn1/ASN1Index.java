@@ -0,0 +1,642 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * A flat structural index over an encoding.
+ * <p>
+ * Building the index scans the TLV structure once and records every element in a set of
+ * parallel arrays: identifier, header offset, contents offset, contents length, parent and
+ * next sibling. No ASN.1 objects are created. Elements are referred to by their node number,
+ * which is their position in document order, so the first child of a constructed node
+ * {@code n} is {@code n + 1}. Values are decoded only when asked for, either with the typed
+ * accessors or as a complete object with {@link #getObject(int)}.
+ * </p><p>
+ * An index over a {@link ByteBuffer} reads the buffer directly, only contents handed out as
+ * {@link Bytes} are copied. Once built, an index is immutable and may be shared between threads,
+ * provided the underlying input is not modified.
+ * </p>
+ */
+public final class ASN1Index
+{
+    // set in flags for elements using indefinite-length encoding
+    private static final int INDEFINITE = 0x01;
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private static final Charset UTF_16BE = StandardCharsets.UTF_16BE;
+
+    private final Bytes      data;
+    private final ByteBuffer buffer;
+
+    private final int     count;
+    private final byte[]  flags;
+    private final int[]   tagNos;
+    private final int[]   headerOffsets;
+    private final int[]   contentOffsets;
+    private final int[]   contentLengths;
+    private final int[]   parents;
+    private final int[]   nextSiblings;
+
+    /**
+     * Index a sequence of one or more encoded objects.
+     *
+     * @param data the encoding to index.
+     */
+    public ASN1Index(final Bytes data)
+    {
+        this(data, null);
+    }
+
+    /**
+     * Index the remaining bytes of a buffer, which hold one or more encoded objects. Offsets
+     * are relative to the buffer's position, the buffer's position and limit are not changed.
+     *
+     * @param buffer the encoding to index.
+     */
+    public ASN1Index(final ByteBuffer buffer)
+    {
+        this(null, buffer.slice());
+    }
+
+    private ASN1Index(final Bytes data, final ByteBuffer buffer)
+    {
+        final Builder nodes = new Builder(data != null ? scanner(data) : scanner(buffer));
+
+        this.data = data;
+        this.buffer = buffer;
+        this.count = nodes.count;
+        this.flags = nodes.flags;
+        this.tagNos = nodes.tagNos;
+        this.headerOffsets = nodes.headerOffsets;
+        this.contentOffsets = nodes.contentOffsets;
+        this.contentLengths = nodes.contentLengths;
+        this.parents = nodes.parents;
+        this.nextSiblings = nodes.nextSiblings;
+    }
+
+    private static ASN1Scanner scanner(final Bytes data)
+    {
+        return new ASN1Scanner(data.size(), 4)
+        {
+            @Override
+            int byteAt(final long p)
+            {
+                return data.getByte((int)p) & 0xff;
+            }
+        };
+    }
+
+    private static ASN1Scanner scanner(final ByteBuffer buffer)
+    {
+        return new ASN1Scanner(buffer.remaining(), 4)
+        {
+            @Override
+            int byteAt(final long p)
+            {
+                return buffer.get((int)p) & 0xff;
+            }
+        };
+    }
+
+    /**
+     * @return the number of elements in the index.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * @return the first top level node, or -1 if the input is empty. Further top level
+     * nodes are reached with {@link #nextSibling(int)}.
+     */
+    public int root()
+    {
+        return count == 0 ? -1 : 0;
+    }
+
+    /**
+     * @return the parent of the node, or -1 for a top level node.
+     */
+    public int parent(final int node)
+    {
+        checkNode(node);
+
+        return parents[node];
+    }
+
+    /**
+     * @return the first child of the node, or -1 if it has none.
+     */
+    public int firstChild(final int node)
+    {
+        checkNode(node);
+
+        return node + 1 < count && parents[node + 1] == node ? node + 1 : -1;
+    }
+
+    /**
+     * @return the next node on the same level, or -1 if this is the last one.
+     */
+    public int nextSibling(final int node)
+    {
+        checkNode(node);
+
+        return nextSiblings[node];
+    }
+
+    /**
+     * Return a child of the node by position, walking the sibling links.
+     *
+     * @param node a constructed node.
+     * @param index the position of the child, starting at zero.
+     * @return the child node, or -1 if the node has no more than index children.
+     */
+    public int child(final int node, final int index)
+    {
+        int child = firstChild(node);
+
+        for (int i = 0; i != index && child >= 0; i++)
+        {
+            child = nextSiblings[child];
+        }
+
+        return child;
+    }
+
+    /**
+     * @return the number of children of the node.
+     */
+    public int childCount(final int node)
+    {
+        int n = 0;
+
+        for (int child = firstChild(node); child >= 0; child = nextSiblings[child])
+        {
+            n++;
+        }
+
+        return n;
+    }
+
+    /**
+     * Return the class of the node's tag.
+     *
+     * @return 0 for universal, {@link BERTags#APPLICATION}, {@link BERTags#TAGGED} for context
+     * specific, or APPLICATION | TAGGED for private tags.
+     */
+    public int tagClass(final int node)
+    {
+        checkNode(node);
+
+        return flags[node] & (BERTags.APPLICATION | BERTags.TAGGED);
+    }
+
+    public int tagNo(final int node)
+    {
+        checkNode(node);
+
+        return tagNos[node];
+    }
+
+    public boolean isConstructed(final int node)
+    {
+        checkNode(node);
+
+        return (flags[node] & BERTags.CONSTRUCTED) != 0;
+    }
+
+    /**
+     * @return true if the node uses indefinite-length encoding.
+     */
+    public boolean isIndefiniteLength(final int node)
+    {
+        checkNode(node);
+
+        return (flags[node] & INDEFINITE) != 0;
+    }
+
+    /**
+     * @return the offset of the node's identifier octets.
+     */
+    public int headerOffset(final int node)
+    {
+        checkNode(node);
+
+        return headerOffsets[node];
+    }
+
+    /**
+     * @return the offset of the node's contents octets.
+     */
+    public int contentOffset(final int node)
+    {
+        checkNode(node);
+
+        return contentOffsets[node];
+    }
+
+    /**
+     * @return the length of the node's contents octets, for indefinite-length encoding not
+     * counting the end-of-contents octets.
+     */
+    public int contentLength(final int node)
+    {
+        checkNode(node);
+
+        return contentLengths[node];
+    }
+
+    /**
+     * @return the offset just past the node's encoding.
+     */
+    public int endOffset(final int node)
+    {
+        checkNode(node);
+
+        final int end = contentOffsets[node] + contentLengths[node];
+
+        return (flags[node] & INDEFINITE) != 0 ? end + 2 : end;
+    }
+
+    /**
+     * Return the complete encoding of the node, taken with {@link Bytes#subList(int, int)} if the
+     * input was given as {@link Bytes}, copied from the buffer otherwise.
+     *
+     * @return the identifier, length and contents octets of the node.
+     */
+    public Bytes getEncoded(final int node)
+    {
+        return slice(headerOffset(node), endOffset(node));
+    }
+
+    /**
+     * Return the contents octets of the node, taken with {@link Bytes#subList(int, int)} if the
+     * input was given as {@link Bytes}, copied from the buffer otherwise.
+     *
+     * @return the contents octets of the node.
+     */
+    public Bytes getContents(final int node)
+    {
+        return slice(contentOffset(node), contentOffsets[node] + contentLengths[node]);
+    }
+
+    /**
+     * Decode the node as a complete object.
+     *
+     * @return the node's element as an ASN.1 object.
+     */
+    public ASN1Primitive getObject(final int node)
+    {
+        return ASN1Primitive.fromBytes(getEncoded(node), data != null);
+    }
+
+    /**
+     * Decode the contents of a primitive INTEGER or ENUMERATED node, or a node implicitly
+     * tagged as one, without creating any objects.
+     *
+     * @return the value of the node.
+     * @exception ArithmeticException if the value does not fit in a long.
+     */
+    public long getLong(final int node)
+    {
+        final int length = primitiveContentLength(node);
+        final int offset = contentOffsets[node];
+
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("malformed integer");
+        }
+        if (length > 8)
+        {
+            throw new ArithmeticException("INTEGER out of long range");
+        }
+
+        long value = byteAt(offset);
+
+        for (int i = 1; i != length; i++)
+        {
+            value = (value << 8) | (byteAt(offset + i) & 0xff);
+        }
+
+        return value;
+    }
+
+    /**
+     * Decode the contents of a primitive INTEGER or ENUMERATED node, or a node implicitly
+     * tagged as one.
+     *
+     * @return the value of the node.
+     */
+    public BigInteger getBigInteger(final int node)
+    {
+        final int length = primitiveContentLength(node);
+
+        if (length == 0)
+        {
+            throw new IllegalArgumentException("malformed integer");
+        }
+
+        return length <= 8 ? BigInteger.valueOf(getLong(node)) : new BigInteger(getContents(node).toByteArray());
+    }
+
+    /**
+     * Decode the contents of a primitive BOOLEAN node, or a node implicitly tagged as one.
+     *
+     * @return the value of the node.
+     */
+    public boolean getBoolean(final int node)
+    {
+        if (primitiveContentLength(node) != 1)
+        {
+            throw new IllegalArgumentException("BOOLEAN value should have 1 byte in it");
+        }
+
+        return byteAt(contentOffsets[node]) != 0;
+    }
+
+    /**
+     * Decode the contents of a primitive OBJECT IDENTIFIER node, or a node implicitly tagged
+     * as one. Well known identifiers are taken from the identifier pool.
+     *
+     * @return the value of the node.
+     */
+    public ASN1ObjectIdentifier getObjectIdentifier(final int node)
+    {
+        primitiveContentLength(node);
+
+        return ASN1ObjectIdentifier.fromOctetString(getContents(node));
+    }
+
+    /**
+     * Decode a universal string node. UTF8String, BMPString and the single byte string types
+     * are decoded straight from the input, other string types through their object.
+     *
+     * @return the string value of the node.
+     * @exception IllegalArgumentException if the node is not a primitive universal string.
+     */
+    public String getString(final int node)
+    {
+        final int length = primitiveContentLength(node);
+
+        if (tagClass(node) != 0)
+        {
+            throw new IllegalArgumentException("string expected, found tagged node");
+        }
+
+        switch (tagNos[node])
+        {
+            case BERTags.UTF8_STRING:
+                return decode(node, length, StandardCharsets.UTF_8);
+            case BERTags.BMP_STRING:
+                return decode(node, length, UTF_16BE);
+            case BERTags.NUMERIC_STRING:
+            case BERTags.PRINTABLE_STRING:
+            case BERTags.T61_STRING:
+            case BERTags.VIDEOTEX_STRING:
+            case BERTags.IA5_STRING:
+            case BERTags.GRAPHIC_STRING:
+            case BERTags.VISIBLE_STRING:
+            case BERTags.GENERAL_STRING:
+                return decode(node, length, StandardCharsets.ISO_8859_1);
+            default:
+                final ASN1Primitive obj = getObject(node);
+                if (obj instanceof ASN1String)
+                {
+                    return ((ASN1String)obj).getString();
+                }
+                throw new IllegalArgumentException("string expected, found tag " + tagNos[node]);
+        }
+    }
+
+    /**
+     * Decode a UTCTime or GeneralizedTime node. UTCTime years are taken from 1950 - 2049.
+     *
+     * @return the instant the node represents.
+     * @exception IllegalArgumentException if the node is not a primitive universal time.
+     */
+    public Instant getInstant(final int node)
+    {
+        primitiveContentLength(node);
+
+        if (tagClass(node) == 0)
+        {
+            if (tagNos[node] == BERTags.UTC_TIME)
+            {
+                return TimeCodec.parseUTCTime(getContents(node), 1950);
+            }
+            if (tagNos[node] == BERTags.GENERALIZED_TIME)
+            {
+                return TimeCodec.parseGeneralizedTime(getContents(node));
+            }
+        }
+
+        throw new IllegalArgumentException("time expected, found tag " + tagNos[node]);
+    }
+
+    private String decode(final int node, final int length, final Charset charset)
+    {
+        final int offset = contentOffsets[node];
+
+        if (data != null)
+        {
+            return data.subList(offset, offset + length).toString(charset);
+        }
+
+        final ByteBuffer buf = buffer.duplicate();
+
+        buf.position(offset).limit(offset + length);
+
+        return charset.decode(buf).toString();
+    }
+
+    private int primitiveContentLength(final int node)
+    {
+        if (isConstructed(node))
+        {
+            throw new IllegalArgumentException("primitive node expected");
+        }
+
+        return contentLengths[node];
+    }
+
+    private void checkNode(final int node)
+    {
+        if (node < 0 || node >= count)
+        {
+            throw new IndexOutOfBoundsException("no node " + node);
+        }
+    }
+
+    private Bytes slice(final int from, final int to)
+    {
+        if (data != null)
+        {
+            return data.subList(from, to);
+        }
+
+        final byte[] bytes = new byte[to - from];
+        final ByteBuffer buf = buffer.duplicate();
+
+        buf.position(from);
+        buf.get(bytes);
+
+        return newBytes(bytes);
+    }
+
+    private int byteAt(final int p)
+    {
+        return data != null ? data.getByte(p) : buffer.get(p);
+    }
+
+    /**
+     * The node arrays while they are being filled, grown as the scan proceeds.
+     */
+    private static final class Builder
+    {
+        private int     count;
+        private byte[]  flags;
+        private int[]   tagNos;
+        private int[]   headerOffsets;
+        private int[]   contentOffsets;
+        private int[]   contentLengths;
+        private int[]   parents;
+        private int[]   nextSiblings;
+
+        Builder(final ASN1Scanner scanner)
+        {
+            final int limit = (int)scanner.size();
+
+            // every element takes at least two octets
+            allocate(Math.min(limit / 2, Math.max(16, limit / 16)));
+
+            // the open constructed nodes
+            int[] open = new int[INITIAL_DEPTH];
+            // the last node seen on each level, for linking siblings
+            int[] last = new int[INITIAL_DEPTH + 1];
+            int depth = 0;
+
+            last[0] = -1;
+
+            while (true)
+            {
+                if (!scanner.next())
+                {
+                    if (depth == 0)
+                    {
+                        break;
+                    }
+
+                    final int closed = open[--depth];
+
+                    if ((flags[closed] & INDEFINITE) != 0)
+                    {
+                        // the scanner is on the end-of-contents octets
+                        contentLengths[closed] = (int)scanner.position() - contentOffsets[closed];
+                    }
+                    scanner.exit();
+                    continue;
+                }
+
+                final int node = addNode(scanner);
+
+                parents[node] = depth == 0 ? -1 : open[depth - 1];
+                nextSiblings[node] = -1;
+                if (last[depth] >= 0)
+                {
+                    nextSiblings[last[depth]] = node;
+                }
+                last[depth] = node;
+
+                if (scanner.isConstructed())
+                {
+                    if (depth == open.length)
+                    {
+                        open = Arrays.copyOf(open, depth * 2);
+                        last = Arrays.copyOf(last, depth * 2 + 1);
+                    }
+
+                    open[depth] = node;
+                    last[++depth] = -1;
+                    scanner.enter();
+                }
+            }
+
+            if (flags.length != count)
+            {
+                allocate(count);
+            }
+        }
+
+        private void allocate(final int capacity)
+        {
+            flags = flags == null ? new byte[capacity] : Arrays.copyOf(flags, capacity);
+            tagNos = tagNos == null ? new int[capacity] : Arrays.copyOf(tagNos, capacity);
+            headerOffsets = headerOffsets == null ? new int[capacity] : Arrays.copyOf(headerOffsets, capacity);
+            contentOffsets = contentOffsets == null ? new int[capacity] : Arrays.copyOf(contentOffsets, capacity);
+            contentLengths = contentLengths == null ? new int[capacity] : Arrays.copyOf(contentLengths, capacity);
+            parents = parents == null ? new int[capacity] : Arrays.copyOf(parents, capacity);
+            nextSiblings = nextSiblings == null ? new int[capacity] : Arrays.copyOf(nextSiblings, capacity);
+        }
+
+        /**
+         * Record the scanner's current element as a new node.
+         */
+        private int addNode(final ASN1Scanner scanner)
+        {
+            if (count == flags.length)
+            {
+                allocate(Math.max(16, count + (count >> 1)));
+            }
+
+            final int node = count++;
+            final long length = scanner.contentLength();
+
+            flags[node] = (byte)((scanner.tag() & 0xe0) | (length < 0 ? INDEFINITE : 0));
+            tagNos[node] = scanner.tagNo();
+            headerOffsets[node] = (int)scanner.headerOffset();
+            contentOffsets[node] = (int)scanner.contentOffset();
+            contentLengths[node] = length < 0 ? 0 : (int)length;
+
+            return node;
+        }
+    }
+}
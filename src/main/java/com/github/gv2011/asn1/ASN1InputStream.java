@@ -32,8 +32,10 @@ package com.github.gv2011.asn1;
 import static com.github.gv2011.util.Verify.verifyEqual;
 import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
 import static com.github.gv2011.util.ex.Exceptions.call;
+import static com.github.gv2011.util.ex.Exceptions.wrap;
 
 import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import com.github.gv2011.asn1.util.io.Streams;
@@ -44,16 +46,33 @@ import com.github.gv2011.util.bytes.Bytes;
  * others in that it returns null after it has read the last object in
  * the stream. If an ASN.1 NULL is encountered a DER/BER Null object is
  * returned.
+ * <p>
+ * When the decoder owns its input - an in-memory encoding, or the contents of an
+ * enclosing definite-length object - it reads ahead into a small window and decodes
+ * tags and lengths from there. A stream supplied by the caller is never read beyond
+ * the last object returned.
+ * </p>
  */
 public class ASN1InputStream
     extends FilterInputStream
     implements BERTags, ASN1Parser
 {
+    private static final int WINDOW_SIZE = 4096;
+
     private final int limit;
     private final boolean lazyEvaluate;
 
     private final byte[][] tmpBuffers;
 
+    // read-ahead buffer, null if contents are sliced from the input
+    private final byte[] window;
+    private int windowPos;
+    private int windowEnd;
+
+    // the tag number and length decoded by readWindowHeader
+    private int headerTagNo;
+    private int headerLength;
+
     public static ASN1Primitive parse(final Bytes asn1) {
       @SuppressWarnings("resource")
       final ASN1InputStream asn1InputStream = new ASN1InputStream(asn1);
@@ -77,7 +96,7 @@ public class ASN1InputStream
     public ASN1InputStream(
         final Bytes input)
     {
-        this(input.openStream(), input.size());
+        this(input.openStream(), input.size(), false, true);
     }
 
     /**
@@ -91,7 +110,28 @@ public class ASN1InputStream
         final Bytes input,
         final boolean lazyEvaluate)
     {
-        this(input.openStream(), input.size(), lazyEvaluate);
+        this(input.openStream(), input.size(), lazyEvaluate, true);
+    }
+
+    /**
+     * Create an ASN1InputStream based on the input byte array. The length of DER objects in
+     * the stream is automatically limited to the length of the input array.
+     * <p>
+     * With sliceInput the contents of primitive objects (OCTET STRING, INTEGER, strings,
+     * BIT STRING...) are views into one array holding the input instead of copies of their
+     * own. The input is copied to that array once, unless it is itself the contents of an
+     * object decoded this way. Every object decoded keeps the whole array reachable.
+     * </p>
+     * @param input array containing ASN.1 encoded data.
+     * @param lazyEvaluate true if parsing inside constructed objects can be delayed.
+     * @param sliceInput true if primitive contents are views into the input.
+     */
+    public ASN1InputStream(
+        final Bytes   input,
+        final boolean lazyEvaluate,
+        final boolean sliceInput)
+    {
+        this(sliceInput ? new BytesInputStream(input) : input.openStream(), input.size(), lazyEvaluate, !sliceInput);
     }
 
     /**
@@ -133,11 +173,42 @@ public class ASN1InputStream
         final InputStream input,
         final int         limit,
         final boolean     lazyEvaluate)
+    {
+        this(input, limit, lazyEvaluate, false);
+    }
+
+    private ASN1InputStream(
+        final InputStream input,
+        final int         limit,
+        final boolean     lazyEvaluate,
+        final boolean     readAhead)
     {
         super(input);
         this.limit = limit;
         this.lazyEvaluate = lazyEvaluate;
         tmpBuffers = new byte[11][];
+        // slices are taken from the input, so it must not be read ahead
+        window = readAhead ? new byte[Math.max(0, Math.min(limit, WINDOW_SIZE))] : null;
+    }
+
+    /**
+     * Create a stream over the contents of a definite-length object which are held in
+     * the window of the enclosing stream from windowPos on. They are decoded from there,
+     * the contents stream must have been skipped past them.
+     */
+    private ASN1InputStream(
+        final DefiniteLengthInputStream contents,
+        final ASN1InputStream           enclosing,
+        final int                       windowPos,
+        final int                       length)
+    {
+        super(contents);
+        this.limit = length;
+        this.lazyEvaluate = false;
+        tmpBuffers = enclosing.tmpBuffers;
+        window = enclosing.window;
+        this.windowPos = windowPos;
+        windowEnd = windowPos + length;
     }
 
     int getLimit()
@@ -145,6 +216,237 @@ public class ASN1InputStream
         return limit;
     }
 
+    Bytes readSlice(final int length)
+    {
+        if (windowPos != windowEnd)
+        {
+            return null;
+        }
+
+        return StreamUtil.readSlice(in, length);
+    }
+
+    @Override
+    public int read()
+        throws IOException
+    {
+        if (window == null)
+        {
+            return in.read();
+        }
+
+        if (windowPos == windowEnd && !fill())
+        {
+            return -1;
+        }
+
+        return window[windowPos++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+        throws IOException
+    {
+        if (window == null)
+        {
+            return in.read(b, off, len);
+        }
+
+        if (len == 0)
+        {
+            return 0;
+        }
+
+        if (windowPos == windowEnd)
+        {
+            if (len >= window.length)
+            {
+                return in.read(b, off, len);
+            }
+
+            if (!fill())
+            {
+                return -1;
+            }
+        }
+
+        final int numRead = Math.min(len, windowEnd - windowPos);
+
+        System.arraycopy(window, windowPos, b, off, numRead);
+        windowPos += numRead;
+
+        return numRead;
+    }
+
+    @Override
+    public long skip(final long n)
+        throws IOException
+    {
+        if (window == null || n <= 0)
+        {
+            return super.skip(n);
+        }
+
+        final int buffered = (int)Math.min(n, windowEnd - windowPos);
+        windowPos += buffered;
+
+        return buffered == n ? buffered : buffered + in.skip(n - buffered);
+    }
+
+    @Override
+    public int available()
+        throws IOException
+    {
+        return windowEnd - windowPos + in.available();
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+        return window == null && in.markSupported();
+    }
+
+    /**
+     * Refill the empty window with one bulk read.
+     *
+     * @return false at the end of the input.
+     */
+    private boolean fill()
+        throws IOException
+    {
+        windowPos = 0;
+        windowEnd = 0;
+
+        final int numRead = in.read(window, 0, window.length);
+        if (numRead <= 0)
+        {
+            return false;
+        }
+
+        windowEnd = numRead;
+        return true;
+    }
+
+    /**
+     * Read the first identifier octet, straight from the window when there is one.
+     */
+    private int readTag()
+    {
+        if (window == null)
+        {
+            return readByte(in);
+        }
+
+        try
+        {
+            if (windowPos == windowEnd && !fill())
+            {
+                return -1;
+            }
+        }
+        catch (final IOException e)
+        {
+            throw wrap(e);
+        }
+
+        return window[windowPos++] & 0xff;
+    }
+
+    /**
+     * Decode the tag number and length following the first identifier octet from the
+     * window into headerTagNo and headerLength, if they lie wholly within it.
+     *
+     * @return false, with nothing consumed, if the header runs past the end of the window.
+     */
+    private boolean readWindowHeader(final int tag)
+    {
+        final byte[] w = window;
+        final int end = windowEnd;
+        int p = windowPos;
+        int tagNo = tag & 0x1f;
+
+        if (tagNo == 0x1f)
+        {
+            if (p == end)
+            {
+                return false;
+            }
+
+            int b = w[p++] & 0xff;
+
+            // X.690-0207 8.1.2.4.2
+            // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
+            if ((b & 0x7f) == 0)
+            {
+                throw new ASN1ParsingException("corrupted stream - invalid high tag number found");
+            }
+
+            tagNo = 0;
+            while ((b & 0x80) != 0)
+            {
+                if (p == end)
+                {
+                    return false;
+                }
+
+                tagNo |= (b & 0x7f);
+                tagNo <<= 7;
+                b = w[p++] & 0xff;
+            }
+
+            tagNo |= (b & 0x7f);
+        }
+
+        if (p == end)
+        {
+            return false;
+        }
+
+        int length = w[p++] & 0xff;
+
+        if (length == 0x80)
+        {
+            length = -1;      // indefinite-length encoding
+        }
+        else if (length > 127)
+        {
+            final int size = length & 0x7f;
+
+            // Note: The invalid long form "0xff" (see X.690 8.1.3.5c) will be caught here
+            if (size > 4)
+            {
+                throw new ASN1ParsingException("DER length more than 4 bytes: " + size);
+            }
+
+            if (size > end - p)
+            {
+                return false;
+            }
+
+            length = 0;
+            for (final int lengthEnd = p + size; p != lengthEnd; p++)
+            {
+                length = (length << 8) + (w[p] & 0xff);
+            }
+
+            if (length < 0)
+            {
+                throw new ASN1ParsingException("corrupted stream - negative length found");
+            }
+
+            if (length >= limit)
+            {
+                throw new ASN1ParsingException("corrupted stream - out of bounds length found");
+            }
+        }
+
+        windowPos = p;
+        headerTagNo = tagNo;
+        headerLength = length;
+
+        return true;
+    }
+
     protected int readLength(){
         return readLength(this, limit);
     }
@@ -178,11 +480,21 @@ public class ASN1InputStream
 
         if ((tag & APPLICATION) != 0)
         {
+            if (lazyEvaluate)
+            {
+                return new LazyEncodedApplicationSpecific(isConstructed, tagNo, defIn.toByteArray());
+            }
+
             return new DERApplicationSpecific(isConstructed, tagNo, defIn.toByteArray());
         }
 
         if ((tag & TAGGED) != 0)
         {
+            if (lazyEvaluate && isConstructed)
+            {
+                return LazyEncodedObject.createTaggedObject(tagNo, defIn.toByteArray());
+            }
+
             return new ASN1StreamParser(defIn).readTaggedObject(isConstructed, tagNo);
         }
 
@@ -214,7 +526,14 @@ public class ASN1InputStream
                         return DERFactory.createSequence(buildDEREncodableVector(defIn));
                     }
                 case SET:
-                    return DERFactory.createSet(buildDEREncodableVector(defIn));
+                    if (lazyEvaluate)
+                    {
+                        return new LazyEncodedSet(defIn.toByteArray());
+                    }
+                    else
+                    {
+                        return DERFactory.createSet(buildDEREncodableVector(defIn));
+                    }
                 case EXTERNAL:
                     return new DERExternal(buildDEREncodableVector(defIn));
                 default:
@@ -240,12 +559,25 @@ public class ASN1InputStream
     @SuppressWarnings("resource")
     ASN1EncodableVector buildDEREncodableVector(
         final DefiniteLengthInputStream dIn){
-        return new ASN1InputStream(dIn).buildEncodableVector();
+        final int length = dIn.getRemaining();
+
+        if (window != null && length <= windowEnd - windowPos)
+        {
+            // the contents are all in the window already, decode them in place. The window
+            // is not refilled before they are done, as skipping them does not read.
+            final int start = windowPos;
+
+            call(() -> dIn.skip(length));
+
+            return new ASN1InputStream(dIn, this, start, length).buildEncodableVector();
+        }
+
+        return new ASN1InputStream(dIn, length, false, window != null).buildEncodableVector();
     }
 
     @Override
     public ASN1Primitive readObject(){
-        final int tag = call(this::read);
+        final int tag = readTag();
         if (tag <= 0)
         {
             if (tag == 0)
@@ -257,16 +589,23 @@ public class ASN1InputStream
         }
 
         //
-        // calculate tag number
+        // calculate tag number and length, from the window unless the header straddles its end
         //
-        final int tagNo = readTagNumber(this, tag);
+        final int tagNo;
+        final int length;
 
-        final boolean isConstructed = (tag & CONSTRUCTED) != 0;
+        if (window != null && readWindowHeader(tag))
+        {
+            tagNo = headerTagNo;
+            length = headerLength;
+        }
+        else
+        {
+            tagNo = readTagNumber(this, tag);
+            length = readLength();
+        }
 
-        //
-        // calculate length
-        //
-        final int length = readLength();
+        final boolean isConstructed = (tag & CONSTRUCTED) != 0;
 
         if (length < 0) // indefinite-length method
         {
@@ -326,7 +665,7 @@ public class ASN1InputStream
         {
             tagNo = 0;
 
-            int b = call(s::read);
+            int b = readByte(s);
 
             // X.690-0207 8.1.2.4.2
             // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
@@ -339,7 +678,7 @@ public class ASN1InputStream
             {
                 tagNo |= (b & 0x7f);
                 tagNo <<= 7;
-                b = call(s::read);
+                b = readByte(s);
             }
 
             if (b < 0)
@@ -354,7 +693,7 @@ public class ASN1InputStream
     }
 
     static int readLength(final InputStream s, final int limit){
-        int length = call(s::read);
+        int length = readByte(s);
         if (length < 0)
         {
             throw new ASN1ParsingException("EOF found when length expected");
@@ -378,7 +717,7 @@ public class ASN1InputStream
             length = 0;
             for (int i = 0; i < size; i++)
             {
-                final int next = call(s::read);
+                final int next = readByte(s);
 
                 if (next < 0)
                 {
@@ -402,6 +741,22 @@ public class ASN1InputStream
         return length;
     }
 
+    /**
+     * Read one octet of a header from a stream.
+     *
+     * @return the octet, or -1 at the end of the stream.
+     */
+    static int readByte(final InputStream s){
+        try
+        {
+            return s.read();
+        }
+        catch (final IOException e)
+        {
+            throw wrap(e);
+        }
+    }
+
     private static Bytes getBuffer(final DefiniteLengthInputStream defIn, final byte[][] tmpBuffers){
         final int len = defIn.getRemaining();
         if (defIn.getRemaining() < tmpBuffers.length)
@@ -452,7 +807,7 @@ public class ASN1InputStream
         switch (tagNo)
         {
             case BIT_STRING:
-                return ASN1BitString.fromInputStream(defIn.getRemaining(), defIn);
+                return ASN1BitString.fromContents(defIn.toByteArray());
             case BMP_STRING:
                 return new DERBMPString(getBMPCharBuffer(defIn));
             case BOOLEAN:
@@ -466,7 +821,7 @@ public class ASN1InputStream
             case IA5_STRING:
                 return new DERIA5String(defIn.toByteArray());
             case INTEGER:
-                return new ASN1Integer(defIn.toByteArray());
+                return ASN1Integer.fromOctetString(defIn.toByteArray());
             case NULL:
                 return DERNull.INSTANCE;   // actual content is ignored (enforce 0 length?)
             case NUMERIC_STRING:
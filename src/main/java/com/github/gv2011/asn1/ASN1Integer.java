@@ -33,15 +33,34 @@ import static com.github.gv2011.util.bytes.ByteUtils.fromBigInteger;
 
 import java.math.BigInteger;
 
+import com.github.gv2011.util.ann.Nullable;
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
  * Class representing the ASN.1 INTEGER type.
+ * <p>
+ * Values in the range of a long are held as a long, so they can be read and written
+ * without going through BigInteger.
+ * </p>
  */
 public class ASN1Integer
     extends ASN1Primitive
 {
-    private final Bytes bytes;
+    private static final ASN1Integer[] cache = new ASN1Integer[IntegerCodec.CACHE_MAX - IntegerCodec.CACHE_MIN + 1];
+
+    static
+    {
+        for (int i = 0; i != cache.length; i++)
+        {
+            cache[i] = new ASN1Integer(IntegerCodec.CACHE_MIN + i);
+        }
+    }
+
+    // the contents as given, null if the value was supplied as a long
+    private final @Nullable Bytes bytes;
+
+    private final boolean isLong;
+    private final long value;
 
     /**
      * return an integer from the passed in object
@@ -99,8 +118,32 @@ public class ASN1Integer
         }
     }
 
+    /**
+     * Return an integer for value, small values are shared.
+     *
+     * @param value the value of the integer.
+     * @return an ASN1Integer instance.
+     */
+    public static ASN1Integer valueOf(final long value){
+      return IntegerCodec.isCached(value) ? cache[(int)value - IntegerCodec.CACHE_MIN] : new ASN1Integer(value);
+    }
+
+    static ASN1Integer fromOctetString(final Bytes enc){
+      if (IntegerCodec.fitsLong(enc) && IntegerCodec.isMinimal(enc))
+      {
+          final long value = IntegerCodec.toLong(enc);
+          if (IntegerCodec.isCached(value))
+          {
+              return cache[(int)value - IntegerCodec.CACHE_MIN];
+          }
+      }
+      return new ASN1Integer(enc);
+    }
+
     public ASN1Integer(final long value){
-      this(BigInteger.valueOf(value));
+      bytes = null;
+      isLong = true;
+      this.value = value;
     }
 
     public ASN1Integer(final BigInteger value){
@@ -109,11 +152,45 @@ public class ASN1Integer
 
     public ASN1Integer(final Bytes bytes){
       this.bytes = bytes;
+      isLong = IntegerCodec.fitsLong(bytes);
+      value = isLong ? IntegerCodec.toLong(bytes) : 0;
     }
 
     public BigInteger getValue()
     {
-        return new BigInteger(bytes.toByteArray());
+        return isLong ? BigInteger.valueOf(value) : new BigInteger(bytes.toByteArray());
+    }
+
+    /**
+     * Return the value as a long.
+     *
+     * @return the value of this integer.
+     * @throws ArithmeticException if the value does not fit in a long.
+     */
+    public long longValueExact()
+    {
+        if (!isLong)
+        {
+            throw new ArithmeticException("INTEGER out of long range");
+        }
+
+        return value;
+    }
+
+    /**
+     * Return the value as an int.
+     *
+     * @return the value of this integer.
+     * @throws ArithmeticException if the value does not fit in an int.
+     */
+    public int intValueExact()
+    {
+        if (!isLong || (int)value != value)
+        {
+            throw new ArithmeticException("INTEGER out of int range");
+        }
+
+        return (int)value;
     }
 
     /**
@@ -123,7 +200,17 @@ public class ASN1Integer
      */
     public BigInteger getPositiveValue()
     {
-        return new BigInteger(1, bytes.toByteArray());
+        return new BigInteger(1, (bytes == null ? IntegerCodec.toBytes(value) : bytes).toByteArray());
+    }
+
+    private int contentLength()
+    {
+        return bytes == null ? IntegerCodec.length(value) : bytes.size();
+    }
+
+    private byte contentByte(final int i)
+    {
+        return bytes == null ? IntegerCodec.byteAt(value, IntegerCodec.length(value), i) : bytes.getByte(i);
     }
 
     @Override
@@ -135,27 +222,37 @@ public class ASN1Integer
     @Override
     int encodedLength()
     {
-        return 1 + StreamUtil.calculateBodyLength(bytes.size()) + bytes.size();
+        final int length = contentLength();
+
+        return 1 + StreamUtil.calculateBodyLength(length) + length;
     }
 
     @Override
     void encode(
         final ASN1OutputStream out)
     {
-        out.writeEncoded(BERTags.INTEGER, bytes);
+        if (bytes == null)
+        {
+            out.writeEncoded(BERTags.INTEGER, value);
+        }
+        else
+        {
+            out.writeEncoded(BERTags.INTEGER, bytes);
+        }
     }
 
     @Override
     public int hashCode()
     {
-        int value = 0;
+        final int length = contentLength();
+        int hash = 0;
 
-        for (int i = 0; i != bytes.size(); i++)
+        for (int i = 0; i != length; i++)
         {
-            value ^= (bytes.getByte(i) & 0xff) << (i % 4);
+            hash ^= (contentByte(i) & 0xff) << (i % 4);
         }
 
-        return value;
+        return hash;
     }
 
     @Override
@@ -169,13 +266,19 @@ public class ASN1Integer
 
         final ASN1Integer other = (ASN1Integer)o;
 
-        return bytes.equals(other.bytes);
+        if (bytes != null && other.bytes != null)
+        {
+            return bytes.equals(other.bytes);
+        }
+
+        // equal values held as longs have equal encodings of equal length
+        return isLong && other.isLong && value == other.value && contentLength() == other.contentLength();
     }
 
     @Override
     public String toString()
     {
-        return getValue().toString();
+        return isLong ? Long.toString(value) : getValue().toString();
     }
 
 }
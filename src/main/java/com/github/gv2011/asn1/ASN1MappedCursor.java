@@ -0,0 +1,300 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.ex.Exceptions.call;
+import static com.github.gv2011.util.ex.Exceptions.run;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A pull cursor over a memory mapped file, for encodings too large to be held in memory.
+ * <p>
+ * The cursor works like {@link ASN1Cursor}, but all offsets and lengths are longs and
+ * lengths of up to 8 octets are accepted, so elements are not limited to 2GB. The file is
+ * mapped read-only in chunks of {@value #CHUNK_SIZE} bytes; nothing is read into the
+ * heap until an element is decoded with {@link #getObject()}, which parses straight from
+ * the mapping.
+ * </p><p>
+ * A cursor is not thread safe.
+ * </p>
+ */
+public final class ASN1MappedCursor
+    implements Closeable
+{
+    private static final int CHUNK_BITS = 30;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final FileChannel        channel;
+    private final boolean            ownsChannel;
+    private final MappedByteBuffer[] chunks;
+    private final ASN1Scanner        scanner;
+
+    /**
+     * Open and map a file. The file is closed by {@link #close()}.
+     *
+     * @param path the file containing one or more encoded objects.
+     */
+    public ASN1MappedCursor(final Path path)
+    {
+        this(call(() -> FileChannel.open(path, StandardOpenOption.READ)), true);
+    }
+
+    /**
+     * Map the whole of an open channel. The channel stays open when the cursor is closed.
+     *
+     * @param channel a readable channel containing one or more encoded objects.
+     */
+    public ASN1MappedCursor(final FileChannel channel)
+    {
+        this(channel, false);
+    }
+
+    private ASN1MappedCursor(final FileChannel channel, final boolean ownsChannel)
+    {
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+
+        final long size;
+        try
+        {
+            size = call(channel::size);
+            chunks = new MappedByteBuffer[(int)((size + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++)
+            {
+                final long offset = (long)i << CHUNK_BITS;
+                final long length = Math.min(CHUNK_SIZE, size - offset);
+
+                chunks[i] = call(() -> channel.map(MapMode.READ_ONLY, offset, length));
+            }
+        }
+        catch (final RuntimeException e)
+        {
+            close();
+            throw e;
+        }
+
+        scanner = new ASN1Scanner(size, 8)
+        {
+            @Override
+            int byteAt(final long p)
+            {
+                return chunks[(int)(p >>> CHUNK_BITS)].get((int)(p & CHUNK_MASK)) & 0xff;
+            }
+        };
+    }
+
+    /**
+     * @return the size of the mapped file.
+     */
+    public long size()
+    {
+        return scanner.size();
+    }
+
+    /**
+     * Move to the next element on the current level, skipping the rest of the
+     * current element if it has not been entered.
+     *
+     * @return true if there is a next element, false at the end of the current level.
+     */
+    public boolean next()
+    {
+        return scanner.next();
+    }
+
+    /**
+     * Skip the current element, the next call to {@link #next()} will move to its successor.
+     */
+    public void skip()
+    {
+        scanner.skip();
+    }
+
+    /**
+     * Descend into the current element, which has to be constructed. The cursor is then
+     * positioned before the first child, call {@link #next()} to move to it.
+     */
+    public void enter()
+    {
+        scanner.enter();
+    }
+
+    /**
+     * Leave the current level, skipping any remaining children. The cursor is then
+     * positioned after the element that was entered, call {@link #next()} to move to
+     * its successor.
+     */
+    public void exit()
+    {
+        scanner.exit();
+    }
+
+    /**
+     * @return the nesting depth of the current level, 0 for the top level.
+     */
+    public int depth()
+    {
+        return scanner.depth();
+    }
+
+    /**
+     * Return the class of the current element's tag.
+     *
+     * @return 0 for universal, {@link BERTags#APPLICATION}, {@link BERTags#TAGGED} for context
+     * specific, or APPLICATION | TAGGED for private tags.
+     */
+    public int tagClass()
+    {
+        return scanner.tagClass();
+    }
+
+    /**
+     * @return the tag number of the current element.
+     */
+    public int tagNo()
+    {
+        return scanner.tagNo();
+    }
+
+    /**
+     * @return true if the current element uses the constructed encoding.
+     */
+    public boolean isConstructed()
+    {
+        return scanner.isConstructed();
+    }
+
+    /**
+     * @return the file offset of the current element's identifier octets.
+     */
+    public long headerOffset()
+    {
+        return scanner.headerOffset();
+    }
+
+    /**
+     * @return the file offset of the current element's contents octets.
+     */
+    public long contentOffset()
+    {
+        return scanner.contentOffset();
+    }
+
+    /**
+     * @return the length of the current element's contents, or -1 for indefinite-length encoding.
+     */
+    public long contentLength()
+    {
+        return scanner.contentLength();
+    }
+
+    /**
+     * Return the complete encoding of the current element as a read-only buffer sharing
+     * the mapped memory.
+     *
+     * @return the identifier, length and contents octets of the current element.
+     * @throws ASN1Exception if the element is larger than a buffer can address.
+     */
+    public ByteBuffer getEncoded()
+    {
+        return slice(scanner.headerOffset(), scanner.elementEnd());
+    }
+
+    /**
+     * Return a range of the file as a read-only buffer sharing the mapped memory. Unlike
+     * the positioning methods this may be called by several threads at once.
+     */
+    ByteBuffer slice(final long from, final long end)
+    {
+        final long length = end - from;
+
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new ASN1Exception("element of " + length + " bytes too large for a buffer - enter it instead");
+        }
+
+        final int chunk = (int)(from >>> CHUNK_BITS);
+        if (chunk == (int)((end - 1) >>> CHUNK_BITS))
+        {
+            final ByteBuffer buf = chunks[chunk].duplicate();
+            final int offset = (int)(from & CHUNK_MASK);
+
+            buf.limit(offset + (int)length).position(offset);
+
+            return buf.slice();
+        }
+
+        // straddles a chunk boundary, map it on its own
+        return call(() -> channel.map(MapMode.READ_ONLY, from, length)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Decode the object encoded in a range of the file, see {@link #slice(long, long)}.
+     */
+    ASN1Primitive decode(final long from, final long end)
+    {
+        final ByteBuffer encoded = slice(from, end);
+
+        return call(() -> new ASN1InputStream(new ByteBufferInputStream(encoded), encoded.remaining()).readObject());
+    }
+
+    /**
+     * Decode the current element directly from the mapping.
+     *
+     * @return the current element as an ASN.1 object.
+     * @throws ASN1Exception if the element is larger than a buffer can address.
+     */
+    public ASN1Primitive getObject()
+    {
+        return decode(scanner.headerOffset(), scanner.elementEnd());
+    }
+
+    /**
+     * Close the file if it was opened by this cursor. The mapping is not released by this:
+     * it stays valid until the cursor and the buffers handed out by {@link #getEncoded()} are
+     * garbage collected.
+     */
+    @Override
+    public void close()
+    {
+        if (ownsChannel)
+        {
+            run(channel::close);
+        }
+    }
+}
@@ -32,6 +32,12 @@ package com.github.gv2011.asn1;
 import static com.github.gv2011.util.bytes.ByteUtils.newBytesBuilder;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.github.gv2011.asn1.util.Encodable;
 import com.github.gv2011.util.bytes.Bytes;
@@ -52,12 +58,7 @@ public abstract class ASN1Object
     @Override
     public Bytes getEncoded()
     {
-        final BytesBuilder bOut = newBytesBuilder();
-        final ASN1OutputStream      aOut = new ASN1OutputStream(bOut);
-
-        aOut.writeObject(this);
-
-        return bOut.build();
+        return encode(toASN1Primitive(), ASN1Encoding.BER);
     }
 
     /**
@@ -71,24 +72,244 @@ public abstract class ASN1Object
         final String encoding)
     {
         if (encoding.equals(ASN1Encoding.DER)) return getDerEncoded();
-        else if (encoding.equals(ASN1Encoding.DL))
+        else if (encoding.equals(ASN1Encoding.DL)) return encode(toASN1Primitive().toDLObject(), encoding);
+
+        return this.getEncoded();
+    }
+
+    public final Bytes getDerEncoded(){
+      return encode(toASN1Primitive().toDERObject(), ASN1Encoding.DER);
+    }
+
+    private static Bytes encode(final ASN1Primitive primitive, final String encoding){
+      final int length = primitive.encodedLength();
+      final BytesBuilder bOut = newBytesBuilder(length);
+      final EncodingBuffer buffer = new EncodingBuffer(bOut, length);
+      newStream(buffer, encoding).writePrimitive(primitive);
+      return bOut.build();
+    }
+
+    private static ASN1OutputStream newStream(final EncodingBuffer buffer, final String encoding){
+      if (encoding.equals(ASN1Encoding.DER)) return new DEROutputStream(buffer);
+      else if (encoding.equals(ASN1Encoding.DL)) return new DLOutputStream(buffer);
+      else return new ASN1OutputStream(buffer);
+    }
+
+    /**
+     * Return the length of the default BER or DER encoding for this object.
+     *
+     * @return the number of octets {@link #getEncoded()} returns.
+     */
+    public int getEncodedLength()
+    {
+        return toASN1Primitive().encodedLength();
+    }
+
+    /**
+     * Return the length of the encoding named by encoding, as for {@link #getEncoded(String)}.
+     *
+     * @param encoding name of encoding to use.
+     * @return the number of octets {@link #getEncoded(String)} returns.
+     */
+    public int getEncodedLength(
+        final String encoding)
+    {
+        return toEncodingPrimitive(encoding).encodedLength();
+    }
+
+    /**
+     * Write the default BER or DER encoding for this object into dst.
+     *
+     * @param dst the array to write to.
+     * @param off the offset in dst to start writing at.
+     * @return the offset in dst following the encoding.
+     * @throws IllegalArgumentException if the encoding does not fit in dst.
+     */
+    public int encodeTo(
+        final byte[] dst,
+        final int    off)
+    {
+        return encodeTo(dst, off, ASN1Encoding.BER);
+    }
+
+    /**
+     * Write the encoding named by encoding into dst, as for {@link #getEncoded(String)}.
+     *
+     * @param dst the array to write to.
+     * @param off the offset in dst to start writing at.
+     * @param encoding name of encoding to use.
+     * @return the offset in dst following the encoding.
+     * @throws IllegalArgumentException if the encoding does not fit in dst.
+     */
+    public int encodeTo(
+        final byte[] dst,
+        final int    off,
+        final String encoding)
+    {
+        final ByteBuffer buf = ByteBuffer.wrap(dst, off, dst.length - off);
+
+        encodeTo(buf, encoding);
+
+        return buf.position();
+    }
+
+    /**
+     * Write the default BER or DER encoding for this object at the position of dst, and
+     * advance the position past it.
+     *
+     * @param dst the buffer to write to.
+     * @throws IllegalArgumentException if the encoding does not fit in the remaining space of dst.
+     */
+    public void encodeTo(
+        final ByteBuffer dst)
+    {
+        encodeTo(dst, ASN1Encoding.BER);
+    }
+
+    /**
+     * Write the encoding named by encoding at the position of dst, as for
+     * {@link #getEncoded(String)}, and advance the position past it.
+     *
+     * @param dst the buffer to write to.
+     * @param encoding name of encoding to use.
+     * @throws IllegalArgumentException if the encoding does not fit in the remaining space of dst.
+     */
+    public void encodeTo(
+        final ByteBuffer dst,
+        final String     encoding)
+    {
+        final ASN1Primitive primitive = toEncodingPrimitive(encoding);
+        final int length = primitive.encodedLength();
+
+        if (dst.remaining() < length)
         {
-            final BytesBuilder   bOut = newBytesBuilder();
-            final DLOutputStream dOut = new DLOutputStream(bOut);
+            throw new IllegalArgumentException(
+                "encoding of " + length + " octets does not fit in " + dst.remaining() + " remaining");
+        }
+
+        final int start = dst.position();
 
-            dOut.writeObject(this);
+        newStream(new EncodingBuffer(dst), encoding).writePrimitive(primitive);
 
-            return bOut.build();
+        if (dst.position() - start != length)
+        {
+            throw new ASN1Exception("encoded " + (dst.position() - start) + " octets, expected " + length);
         }
+    }
 
-        return this.getEncoded();
+    /**
+     * Return the default BER or DER encoding for this object as a sequence of buffers.
+     *
+     * @return the segments making up the encoding, in order.
+     * @see #getEncodedSegments(String)
+     */
+    public ByteBuffer[] getEncodedSegments()
+    {
+        return getEncodedSegments(ASN1Encoding.BER);
     }
 
-    public final Bytes getDerEncoded(){
-      final BytesBuilder bOut = newBytesBuilder();
-      final DEROutputStream dOut = new DEROutputStream(bOut);
-      dOut.writeObject(this);
-      return bOut.build();
+    /**
+     * Return the encoding named by encoding as a sequence of buffers, as for
+     * {@link #getEncoded(String)}.
+     * <p>
+     * Headers and small values are copied into fresh buffers. The contents of large values,
+     * such as big octet strings, are returned as read-only views of the array their Bytes
+     * write out, so no copy of them is made where that array is the storage of the Bytes.
+     * </p>
+     *
+     * @param encoding name of encoding to use.
+     * @return the segments making up the encoding, in order.
+     */
+    public ByteBuffer[] getEncodedSegments(
+        final String encoding)
+    {
+        final List<ByteBuffer> segments = new ArrayList<>();
+
+        newStream(new EncodingBuffer(segments), encoding).writePrimitive(toEncodingPrimitive(encoding));
+
+        return segments.toArray(new ByteBuffer[segments.size()]);
+    }
+
+    /**
+     * Write the default BER or DER encoding for this object to a blocking channel.
+     *
+     * @param channel the channel to write to.
+     * @return the number of octets written.
+     * @throws IOException if the channel cannot be written to.
+     * @see #getEncodedSegments(String)
+     */
+    public long encodeTo(
+        final GatheringByteChannel channel)
+        throws IOException
+    {
+        return encodeTo(channel, ASN1Encoding.BER);
+    }
+
+    /**
+     * Write the encoding named by encoding to a blocking channel, as for
+     * {@link #getEncoded(String)}, using a single gathering write where the channel accepts it.
+     * <p>
+     * A selectable channel must be in blocking mode. A write which makes no progress is taken
+     * as a failure rather than retried.
+     * </p>
+     *
+     * @param channel the channel to write to.
+     * @param encoding name of encoding to use.
+     * @return the number of octets written.
+     * @throws IOException if the channel cannot be written to, or accepts no octets.
+     * @throws IllegalBlockingModeException if the channel is selectable and not in blocking mode.
+     * @see #getEncodedSegments(String)
+     */
+    public long encodeTo(
+        final GatheringByteChannel channel,
+        final String               encoding)
+        throws IOException
+    {
+        if (channel instanceof SelectableChannel && !((SelectableChannel)channel).isBlocking())
+        {
+            throw new IllegalBlockingModeException();
+        }
+
+        final ByteBuffer[] segments = getEncodedSegments(encoding);
+        long written = 0;
+        int first = 0;
+
+        while (true)
+        {
+            while (first != segments.length && !segments[first].hasRemaining())
+            {
+                first++;
+            }
+
+            if (first == segments.length)
+            {
+                return written;
+            }
+
+            final long n = channel.write(segments, first, segments.length - first);
+
+            if (n <= 0)
+            {
+                throw new IOException("channel accepted no data, " + written + " octets written");
+            }
+
+            written += n;
+        }
+    }
+
+    private ASN1Primitive toEncodingPrimitive(
+        final String encoding)
+    {
+        if (encoding.equals(ASN1Encoding.DER))
+        {
+            return toASN1Primitive().toDERObject();
+        }
+        else if (encoding.equals(ASN1Encoding.DL))
+        {
+            return toASN1Primitive().toDLObject();
+        }
+
+        return toASN1Primitive();
     }
 
     @Override
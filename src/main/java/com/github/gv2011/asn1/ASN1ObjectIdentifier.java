@@ -33,8 +33,7 @@ import static com.github.gv2011.util.bytes.ByteUtils.newBytesBuilder;
 
 
 import java.math.BigInteger;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 import com.github.gv2011.util.ann.Nullable;
 import com.github.gv2011.util.bytes.Bytes;
@@ -45,10 +44,16 @@ import com.github.gv2011.util.bytes.BytesBuilder;
  */
 public class ASN1ObjectIdentifier
     extends ASN1Primitive
+    implements Comparable<ASN1ObjectIdentifier>
 {
-    private final String identifier;
+    // null if an arc does not fit in a long, identifier is then always set
+    private final @Nullable long[] arcs;
 
-    private @Nullable Bytes body;
+    // built on demand from arcs, racing threads compute equal values
+    private volatile @Nullable String identifier;
+
+    // computed on demand, racing threads compute equal values
+    private volatile @Nullable Bytes body;
 
     /**
      * return an OID from the passed in object
@@ -106,8 +111,112 @@ public class ASN1ObjectIdentifier
 
     private static final long LONG_LIMIT = (Long.MAX_VALUE >> 7) - 0x7f;
 
+    private static final long ARC_LIMIT = Long.MAX_VALUE >> 7;
+
     ASN1ObjectIdentifier(
         final Bytes bytes)
+    {
+        arcs = decodeArcs(bytes);
+        identifier = arcs == null ? toIdentifier(bytes) : null;
+        body = bytes;
+    }
+
+    private ASN1ObjectIdentifier(
+        final long[] arcs)
+    {
+        this.arcs = arcs;
+    }
+
+    /**
+     * Decode the arcs of an encoded body.
+     *
+     * @return the arcs, or null if one of them does not fit in a long.
+     */
+    private static long[] decodeArcs(
+        final Bytes bytes)
+    {
+        final long[] arcs = new long[bytes.size() + 1];
+        int count = 0;
+        long value = 0;
+
+        for (int i = 0; i != bytes.size(); i++)
+        {
+            if (value > ARC_LIMIT)
+            {
+                return null;
+            }
+
+            final int b = bytes.getByte(i) & 0xff;
+
+            value = (value << 7) | (b & 0x7f);
+            if ((b & 0x80) == 0)             // end of number reached
+            {
+                if (count == 0)
+                {
+                    final int first = value < 40 ? 0 : value < 80 ? 1 : 2;
+
+                    arcs[count++] = first;
+                    arcs[count++] = value - first * 40;
+                }
+                else
+                {
+                    arcs[count++] = value;
+                }
+                value = 0;
+            }
+        }
+
+        return Arrays.copyOf(arcs, count);
+    }
+
+    /**
+     * Parse dotted decimal arcs, which have already been validated.
+     *
+     * @return the arcs, or null if one of them does not fit in a long.
+     */
+    private static long[] parseArcs(
+        final String id)
+    {
+        int count = 1;
+        for (int i = 0; i != id.length(); i++)
+        {
+            if (id.charAt(i) == '.')
+            {
+                count++;
+            }
+        }
+
+        final long[] arcs = new long[count];
+        int index = 0;
+        long value = 0;
+
+        for (int i = 0; i != id.length(); i++)
+        {
+            final char ch = id.charAt(i);
+
+            if (ch == '.')
+            {
+                arcs[index++] = value;
+                value = 0;
+            }
+            else
+            {
+                final int digit = ch - '0';
+
+                if (value > (Long.MAX_VALUE - digit) / 10)
+                {
+                    return null;
+                }
+                value = value * 10 + digit;
+            }
+        }
+        arcs[index] = value;
+
+        return arcs;
+    }
+
+    private static String toIdentifier(
+        final Bytes bytes)
     {
         final StringBuffer objId = new StringBuffer();
         long value = 0;
@@ -179,8 +288,7 @@ public class ASN1ObjectIdentifier
             }
         }
 
-        identifier = objId.toString();
-        body = bytes;
+        return objId.toString();
     }
 
     /**
@@ -201,6 +309,11 @@ public class ASN1ObjectIdentifier
         }
 
         this.identifier = identifier;
+
+        final long[] parsed = parseArcs(identifier);
+
+        // the first two arcs are encoded as one number, which has to fit as well
+        arcs = parsed != null && parsed[1] <= Long.MAX_VALUE - parsed[0] * 40 ? parsed : null;
     }
 
      /**
@@ -216,7 +329,18 @@ public class ASN1ObjectIdentifier
             throw new IllegalArgumentException("string " + branchID + " not a valid OID branch");
         }
 
-        identifier = oid.getId() + "." + branchID;
+        final long[] branch = oid.arcs == null ? null : parseArcs(branchID);
+
+        if (branch == null)
+        {
+            arcs = null;
+            identifier = oid.getId() + "." + branchID;
+        }
+        else
+        {
+            arcs = Arrays.copyOf(oid.arcs, oid.arcs.length + branch.length);
+            System.arraycopy(branch, 0, arcs, oid.arcs.length, branch.length);
+        }
     }
 
     /**
@@ -226,7 +350,26 @@ public class ASN1ObjectIdentifier
      */
     public String getId()
     {
-        return identifier;
+        String result = identifier;
+
+        if (result == null)
+        {
+            final StringBuilder id = new StringBuilder(arcs.length * 4);
+
+            for (int i = 0; i != arcs.length; i++)
+            {
+                if (i != 0)
+                {
+                    id.append('.');
+                }
+                id.append(arcs[i]);
+            }
+
+            result = id.toString();
+            identifier = result;
+        }
+
+        return result;
     }
 
     /**
@@ -240,6 +383,31 @@ public class ASN1ObjectIdentifier
         return new ASN1ObjectIdentifier(this, branchID);
     }
 
+    /**
+     * Return an OID that creates a branch under the current one.
+     *
+     * @param arc the node number for the new branch.
+     * @return the OID for the new created branch.
+     */
+    public ASN1ObjectIdentifier branch(final long arc)
+    {
+        if (arc < 0)
+        {
+            throw new IllegalArgumentException("arc " + arc + " is negative");
+        }
+
+        if (arcs == null)
+        {
+            return branch(Long.toString(arc));
+        }
+
+        final long[] child = Arrays.copyOf(arcs, arcs.length + 1);
+
+        child[arcs.length] = arc;
+
+        return new ASN1ObjectIdentifier(child);
+    }
+
     /**
      * Return  true if this oid is an extension of the passed in branch, stem.
      *
@@ -248,8 +416,67 @@ public class ASN1ObjectIdentifier
      */
     public boolean on(final ASN1ObjectIdentifier stem)
     {
-        final String id = getId(), stemId = stem.getId();
-        return id.length() > stemId.length() && id.charAt(stemId.length()) == '.' && id.startsWith(stemId);
+        if (arcs == null || stem.arcs == null)
+        {
+            final String id = getId(), stemId = stem.getId();
+            return id.length() > stemId.length() && id.charAt(stemId.length()) == '.' && id.startsWith(stemId);
+        }
+
+        if (arcs.length <= stem.arcs.length)
+        {
+            return false;
+        }
+
+        for (int i = stem.arcs.length - 1; i >= 0; i--)
+        {
+            if (arcs[i] != stem.arcs[i])
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Compare OIDs numerically, arc by arc. An OID sorts directly before the OIDs on it.
+     *
+     * @param other the OID to compare with.
+     * @return a negative number, zero or a positive number as this OID is less than, equal to
+     * or greater than other.
+     */
+    @Override
+    public int compareTo(final ASN1ObjectIdentifier other)
+    {
+        if (arcs != null && other.arcs != null)
+        {
+            final int len = Math.min(arcs.length, other.arcs.length);
+
+            for (int i = 0; i != len; i++)
+            {
+                if (arcs[i] != other.arcs[i])
+                {
+                    return arcs[i] < other.arcs[i] ? -1 : 1;
+                }
+            }
+
+            return Integer.compare(arcs.length, other.arcs.length);
+        }
+
+        final OIDTokenizer tok1 = new OIDTokenizer(getId());
+        final OIDTokenizer tok2 = new OIDTokenizer(other.getId());
+
+        while (tok1.hasMoreTokens() && tok2.hasMoreTokens())
+        {
+            final int cmp = new BigInteger(tok1.nextToken()).compareTo(new BigInteger(tok2.nextToken()));
+
+            if (cmp != 0)
+            {
+                return cmp;
+            }
+        }
+
+        return tok1.hasMoreTokens() ? 1 : tok2.hasMoreTokens() ? -1 : 0;
     }
 
     private void writeField(
@@ -292,6 +519,18 @@ public class ASN1ObjectIdentifier
 
     private void doOutput(final BytesBuilder aOut)
     {
+        if (arcs != null)
+        {
+            writeField(aOut, arcs[0] * 40 + arcs[1]);
+
+            for (int i = 2; i < arcs.length; i++)
+            {
+                writeField(aOut, arcs[i]);
+            }
+
+            return;
+        }
+
         final OIDTokenizer tok = new OIDTokenizer(identifier);
         final int first = Integer.parseInt(tok.nextToken()) * 40;
 
@@ -319,18 +558,21 @@ public class ASN1ObjectIdentifier
         }
     }
 
-    private synchronized Bytes getBody()
+    Bytes getBody()
     {
-        if (body == null)
+        Bytes result = body;
+
+        if (result == null)
         {
             final BytesBuilder bOut = newBytesBuilder();
 
             doOutput(bOut);
 
-            body = bOut.build();
+            result = bOut.build();
+            body = result;
         }
 
-        return body;
+        return result;
     }
 
     @Override
@@ -361,7 +603,7 @@ public class ASN1ObjectIdentifier
     @Override
     public int hashCode()
     {
-        return identifier.hashCode();
+        return arcs != null ? Arrays.hashCode(arcs) : identifier.hashCode();
     }
 
     @Override
@@ -378,7 +620,14 @@ public class ASN1ObjectIdentifier
             return false;
         }
 
-        return identifier.equals(((ASN1ObjectIdentifier)o).identifier);
+        final ASN1ObjectIdentifier other = (ASN1ObjectIdentifier)o;
+
+        if (arcs != null || other.arcs != null)
+        {
+            return Arrays.equals(arcs, other.arcs);
+        }
+
+        return identifier.equals(other.identifier);
     }
 
     @Override
@@ -443,75 +692,59 @@ public class ASN1ObjectIdentifier
      * is not present in which case intern will add it.
      * <p>
      * The pool is also used by the ASN.1 parsers to limit the number of duplicated OID
-     * objects in circulation.
+     * objects in circulation. It holds a fixed table of well-known identifiers and a
+     * bounded cache for all others, so an interned identifier may later be evicted.
      * </p>
      * @return a reference to the identifier in the pool.
      */
-    @SuppressWarnings("unchecked")
     public ASN1ObjectIdentifier intern()
     {
-        synchronized (pool)
-        {
-            final OidHandle hdl = new OidHandle(getBody());
-            final ASN1ObjectIdentifier oid = (ASN1ObjectIdentifier)pool.get(hdl);
+        final ASN1ObjectIdentifier oid = OidPool.get(getBody());
 
-            if (oid != null)
-            {
-                return oid;
-            }
-            else
-            {
-                pool.put(hdl, this);
-                return this;
-            }
+        if (oid != null)
+        {
+            return oid;
         }
-    }
 
-    @SuppressWarnings("rawtypes")
-    private static final Map pool = new HashMap();
+        OidPool.put(this);
 
-    private static class OidHandle
-    {
-        private final int key;
-        private final Bytes enc;
-
-        OidHandle(final Bytes enc)
-        {
-            key = enc.hashCode();
-            this.enc = enc;
-        }
+        return this;
+    }
 
-        @Override
-        public int hashCode()
-        {
-            return key;
-        }
+    /**
+     * @return the number of pool lookups, by the parsers or {@link #intern()}, which found an identifier.
+     */
+    public static long getPoolHits()
+    {
+        return OidPool.getHits();
+    }
 
-        @Override
-        public boolean equals(final Object o)
-        {
-            if (o instanceof OidHandle)
-            {
-                return enc.equals(((OidHandle)o).enc);
-            }
+    /**
+     * @return the number of pool lookups which found no identifier.
+     */
+    public static long getPoolMisses()
+    {
+        return OidPool.getMisses();
+    }
 
-            return false;
-        }
+    /**
+     * @return the number of identifiers evicted from the pool to make room for others.
+     */
+    public static long getPoolEvictions()
+    {
+        return OidPool.getEvictions();
     }
 
     static ASN1ObjectIdentifier fromOctetString(final Bytes enc)
     {
-        final OidHandle hdl = new OidHandle(enc);
+        ASN1ObjectIdentifier oid = OidPool.get(enc);
 
-        synchronized (pool)
+        if (oid == null)
         {
-            final ASN1ObjectIdentifier oid = (ASN1ObjectIdentifier)pool.get(hdl);
-            if (oid != null)
-            {
-                return oid;
-            }
+            oid = new ASN1ObjectIdentifier(enc);
+            OidPool.put(oid);
         }
 
-        return new ASN1ObjectIdentifier(enc);
+        return oid;
     }
 }
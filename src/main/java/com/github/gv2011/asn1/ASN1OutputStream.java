@@ -29,9 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
-import static com.github.gv2011.util.ex.Exceptions.run;
-
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -39,15 +36,26 @@ import com.github.gv2011.util.bytes.Bytes;
 
 /**
  * Stream that produces output based on the default encoding for the passed in objects.
+ * <p>
+ * Output is collected in a block buffer and passed on to the underlying stream when the
+ * buffer fills up and whenever an object passed to {@link #writeObject(ASN1Encodable)}
+ * has been written completely.
+ * </p>
  */
 public class ASN1OutputStream
 {
-    private final OutputStream os;
+    private final EncodingBuffer buffer;
 
     public ASN1OutputStream(
         final OutputStream    os)
     {
-        this.os = os;
+        this(new EncodingBuffer(os));
+    }
+
+    ASN1OutputStream(
+        final EncodingBuffer buffer)
+    {
+        this.buffer = buffer;
     }
 
     void writeLength(
@@ -78,12 +86,12 @@ public class ASN1OutputStream
 
     void write(final int b)
     {
-        run(()->os.write(b));
+        buffer.write(b);
     }
 
     void write(final Bytes bytes)
     {
-      bytes.write(os);
+        buffer.write(bytes);
     }
 
     void writeEncoded(
@@ -95,7 +103,24 @@ public class ASN1OutputStream
         write(bytes);
     }
 
-    void writeTag(final int flags, int tagNo)
+    /**
+     * Write a primitive with the minimal two's complement encoding of value as contents.
+     */
+    void writeEncoded(
+        final int  tag,
+        final long value)
+    {
+        final int length = IntegerCodec.length(value);
+
+        write(tag);
+        write(length);
+        for (int i = 0; i != length; i++)
+        {
+            write(IntegerCodec.byteAt(value, length, i));
+        }
+    }
+
+    void writeTag(final int flags, final int tagNo)
     {
         if (tagNo < 31)
         {
@@ -104,26 +129,18 @@ public class ASN1OutputStream
         else
         {
             write(flags | 0x1f);
-            if (tagNo < 128)
+
+            // base 128, most significant group first
+            int shift = 0;
+            while ((tagNo >>> shift) > 0x7F)
             {
-                write(tagNo);
+                shift += 7;
             }
-            else
+            for (; shift > 0; shift -= 7)
             {
-                final byte[] stack = new byte[5];
-                int pos = stack.length;
-
-                stack[--pos] = (byte)(tagNo & 0x7F);
-
-                do
-                {
-                    tagNo >>= 7;
-                    stack[--pos] = (byte)(tagNo & 0x7F | 0x80);
-                }
-                while (tagNo > 127);
-
-                write(newBytes(stack, pos, stack.length));
+                write((tagNo >>> shift) & 0x7F | 0x80);
             }
+            write(tagNo & 0x7F);
         }
     }
 
@@ -137,8 +154,8 @@ public class ASN1OutputStream
     protected void writeNull()
         throws IOException
     {
-        os.write(BERTags.NULL);
-        os.write(0x00);
+        write(BERTags.NULL);
+        write(0x00);
     }
 
     public void writeObject(
@@ -146,7 +163,7 @@ public class ASN1OutputStream
     {
         if (obj != null)
         {
-            obj.toASN1Primitive().encode(this);
+            writePrimitive(obj.toASN1Primitive());
         }
         else
         {
@@ -154,11 +171,28 @@ public class ASN1OutputStream
         }
     }
 
+    /**
+     * Encode obj as it is, without conversion, and pass the output on to the underlying stream
+     * unless obj is part of an enclosing object.
+     */
+    void writePrimitive(final ASN1Primitive obj)
+    {
+        buffer.enter();
+        try
+        {
+            obj.encode(this);
+        }
+        finally
+        {
+            buffer.exit();
+        }
+    }
+
     void writeImplicitObject(final ASN1Primitive obj)
     {
         if (obj != null)
         {
-            obj.encode(new ImplicitOutputStream(os));
+            new ImplicitOutputStream(buffer).writePrimitive(obj);
         }
         else
         {
@@ -169,23 +203,23 @@ public class ASN1OutputStream
     public void close()
         throws IOException
     {
-        os.close();
+        buffer.close();
     }
 
     public void flush()
         throws IOException
     {
-        os.flush();
+        buffer.flush();
     }
 
     ASN1OutputStream getDERSubStream()
     {
-        return new DEROutputStream(os);
+        return new DEROutputStream(buffer);
     }
 
     ASN1OutputStream getDLSubStream()
     {
-        return new DLOutputStream(os);
+        return new DLOutputStream(buffer);
     }
 
     private class ImplicitOutputStream
@@ -193,9 +227,9 @@ public class ASN1OutputStream
     {
         private boolean first = true;
 
-        public ImplicitOutputStream(final OutputStream os)
+        public ImplicitOutputStream(final EncodingBuffer buffer)
         {
-            super(os);
+            super(buffer);
         }
 
         @Override
@@ -210,5 +244,19 @@ public class ASN1OutputStream
                 super.write(b);
             }
         }
+
+        @Override
+        void write(final Bytes bytes)
+        {
+            if (first && bytes.size() != 0)
+            {
+                first = false;
+                super.write(bytes.subList(1, bytes.size()));
+            }
+            else
+            {
+                super.write(bytes);
+            }
+        }
     }
 }
@@ -0,0 +1,231 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Decodes the elements of a large SEQUENCE OF or SET OF in parallel.
+ * <p>
+ * The boundaries of the elements are found first by a scan of their headers only, see
+ * {@link ASN1Cursor}. The elements are then decoded in chunks of consecutive elements on a
+ * fork/join pool, each chunk by its own {@link ASN1InputStream}. The result is equal to the
+ * one {@link ASN1InputStream} gives when reading the same encoding; anything other than a
+ * definite-length universal SEQUENCE or SET is simply decoded on the calling thread.
+ * </p><p>
+ * A decoder holds no state of its own and may be shared between threads.
+ * </p>
+ */
+public final class ASN1ParallelDecoder
+{
+    /**
+     * The default number of elements decoded by one task.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private final ForkJoinPool pool;
+    private final int          chunkSize;
+
+    /**
+     * Create a decoder running on the common pool with the default chunk size.
+     */
+    public ASN1ParallelDecoder()
+    {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Create a decoder running on the given pool, whose parallelism limits the number of
+     * chunks decoded at the same time.
+     *
+     * @param pool the pool to decode on.
+     * @param chunkSize the number of consecutive elements decoded by one task.
+     */
+    public ASN1ParallelDecoder(
+        final ForkJoinPool pool,
+        final int          chunkSize)
+    {
+        if (chunkSize < 1)
+        {
+            throw new IllegalArgumentException("'chunkSize' must be positive");
+        }
+
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Decode a single encoded object.
+     *
+     * @param encoding the encoding of exactly one object.
+     * @return the decoded object.
+     * @exception ASN1Exception if there is data following the object.
+     */
+    public ASN1Primitive decode(
+        final Bytes encoding)
+    {
+        final ASN1Cursor cursor = new ASN1Cursor(encoding);
+
+        if (!cursor.next())
+        {
+            return null;
+        }
+
+        if (cursor.tagClass() != 0 || !cursor.isConstructed() || cursor.contentLength() < 0
+            || (cursor.tagNo() != BERTags.SEQUENCE && cursor.tagNo() != BERTags.SET))
+        {
+            return ASN1Primitive.fromBytes(encoding);
+        }
+
+        final int tagNo = cursor.tagNo();
+        final int[] offsets = cursor.childOffsets();
+
+        if (cursor.next())
+        {
+            throw new ASN1Exception("Extra data detected in stream");
+        }
+
+        final ASN1Encodable[] elements = new ASN1Encodable[offsets.length - 1];
+
+        if (elements.length <= chunkSize)
+        {
+            decodeRange(encoding, offsets, elements, 0, elements.length);
+        }
+        else
+        {
+            pool.invoke(new DecodeTask(encoding, offsets, elements, 0, elements.length));
+        }
+
+        final ASN1EncodableVector v = ASN1EncodableVector.wrap(elements);
+
+        return tagNo == BERTags.SEQUENCE ? DERFactory.createSequence(v) : DERFactory.createSet(v);
+    }
+
+    /**
+     * Decode a SEQUENCE OF.
+     *
+     * @param encoding the encoding of a single SEQUENCE.
+     * @return the decoded sequence.
+     * @exception IllegalArgumentException if the encoding is not a SEQUENCE.
+     */
+    public ASN1Sequence decodeSequence(
+        final Bytes encoding)
+    {
+        final ASN1Primitive obj = decode(encoding);
+
+        if (!(obj instanceof ASN1Sequence))
+        {
+            throw new IllegalArgumentException("SEQUENCE expected");
+        }
+
+        return (ASN1Sequence)obj;
+    }
+
+    /**
+     * Decode a SET OF.
+     *
+     * @param encoding the encoding of a single SET.
+     * @return the decoded set.
+     * @exception IllegalArgumentException if the encoding is not a SET.
+     */
+    public ASN1Set decodeSet(
+        final Bytes encoding)
+    {
+        final ASN1Primitive obj = decode(encoding);
+
+        if (!(obj instanceof ASN1Set))
+        {
+            throw new IllegalArgumentException("SET expected");
+        }
+
+        return (ASN1Set)obj;
+    }
+
+    @SuppressWarnings("resource")
+    private static void decodeRange(
+        final Bytes           encoding,
+        final int[]           offsets,
+        final ASN1Encodable[] elements,
+        final int             from,
+        final int             to)
+    {
+        final ASN1InputStream aIn = new ASN1InputStream(encoding.subList(offsets[from], offsets[to]));
+
+        for (int i = from; i != to; i++)
+        {
+            elements[i] = aIn.readObject();
+        }
+    }
+
+    private final class DecodeTask
+        extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Bytes           encoding;
+        private final int[]           offsets;
+        private final ASN1Encodable[] elements;
+        private final int             from;
+        private final int             to;
+
+        DecodeTask(
+            final Bytes           encoding,
+            final int[]           offsets,
+            final ASN1Encodable[] elements,
+            final int             from,
+            final int             to)
+        {
+            this.encoding = encoding;
+            this.offsets = offsets;
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from <= chunkSize)
+            {
+                decodeRange(encoding, offsets, elements, from, to);
+            }
+            else
+            {
+                final int middle = (from + to) >>> 1;
+
+                invokeAll(
+                    new DecodeTask(encoding, offsets, elements, from, middle),
+                    new DecodeTask(encoding, offsets, elements, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,668 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.ex.Exceptions.wrap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.github.gv2011.util.bytes.ByteUtils;
+import com.github.gv2011.util.bytes.Bytes;
+import com.github.gv2011.util.bytes.BytesBuilder;
+
+/**
+ * A compiled set of paths selecting elements from an encoding.
+ * <p>
+ * A path is a list of steps separated by '/', each step selecting among the elements of one
+ * level, starting with the top level of the input:
+ * </p>
+ * <ul>
+ * <li>{@code n} - the element at position n, counting from zero,</li>
+ * <li>{@code *} - every element,</li>
+ * <li>{@code [n]} - every element with context specific tag n, {@code [APPLICATION n]},
+ * {@code [PRIVATE n]} and {@code [UNIVERSAL n]} select by the other tag classes.</li>
+ * </ul>
+ * <p>
+ * For example {@code "0/0/1"} is the serial number of a certificate and {@code "0/0/[3]/*"}
+ * its extensions. The input is read in a single pass. Subtrees no path can match are skipped
+ * by their length without being decoded, so only the matching elements are ever copied or
+ * built. A query is immutable and may be used by several threads at once.
+ * </p>
+ */
+public final class ASN1PathQuery
+{
+    private static final Comparator<Match> DOCUMENT_ORDER = (a, b) -> Long.compare(a.offset, b.offset);
+
+    private final String[] paths;
+    private final Step[][] steps;
+
+    private ASN1PathQuery(final String[] paths, final Step[][] steps)
+    {
+        this.paths = paths;
+        this.steps = steps;
+    }
+
+    /**
+     * Compile one or more paths into a query.
+     *
+     * @param paths the paths to select.
+     * @return a query selecting the elements matching any of the paths.
+     * @exception IllegalArgumentException if a path is malformed.
+     */
+    public static ASN1PathQuery compile(final String... paths)
+    {
+        if (paths.length == 0)
+        {
+            throw new IllegalArgumentException("no path given");
+        }
+
+        final Step[][] steps = new Step[paths.length][];
+
+        for (int i = 0; i != paths.length; i++)
+        {
+            steps[i] = parse(paths[i]);
+        }
+
+        return new ASN1PathQuery(paths.clone(), steps);
+    }
+
+    /**
+     * Select the matching elements from an in-memory encoding. The input is walked by offset
+     * with an {@link ASN1Cursor}, and the encodings of the matches are taken with
+     * {@link Bytes#subList(int, int)}.
+     *
+     * @param encoding one or more encoded objects.
+     * @return the matches in document order, one per element and matching path.
+     */
+    public List<Match> evaluate(final Bytes encoding)
+    {
+        final List<Match> matches = new ArrayList<>();
+
+        walk(new ASN1Cursor(encoding), allPaths(), 0, matches);
+
+        return matches;
+    }
+
+    /**
+     * Select the matching elements from a stream. Only the encodings of the matches are read
+     * into memory.
+     *
+     * @param in a stream of one or more encoded objects.
+     * @return the matches in document order, one per element and matching path.
+     */
+    public List<Match> evaluate(final InputStream in)
+    {
+        return new Evaluation(in, StreamUtil.findLimit(in)).run();
+    }
+
+    private int[] allPaths()
+    {
+        final int[] all = new int[steps.length];
+
+        for (int i = 0; i != all.length; i++)
+        {
+            all[i] = i;
+        }
+
+        return all;
+    }
+
+    /**
+     * Select the active paths whose step at depth matches an element.
+     *
+     * @param last true for the paths ending at depth, false for those continuing below it.
+     * @return the selected paths, or null if there are none.
+     */
+    private int[] select(final int[] active, final int depth, final int index, final int tag, final int tagNo,
+        final boolean last)
+    {
+        int[] selected = null;
+        int   count = 0;
+
+        for (final int path : active)
+        {
+            final Step[] pathSteps = steps[path];
+
+            if ((depth == pathSteps.length - 1) == last && pathSteps[depth].matches(index, tag, tagNo))
+            {
+                selected = selected == null ? new int[active.length] : selected;
+                selected[count++] = path;
+            }
+        }
+
+        return selected == null || count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Walk the elements of the cursor's current level. The active paths have matched all
+     * ancestors. Matches are added before the elements below them, so in document order.
+     */
+    private void walk(final ASN1Cursor cursor, final int[] active, final int depth, final List<Match> matches)
+    {
+        for (int index = 0; cursor.next(); index++)
+        {
+            final int tagClass = cursor.tagClass();
+            final int tagNo = cursor.tagNo();
+            final int[] found = select(active, depth, index, tagClass, tagNo, true);
+            final int[] next = cursor.isConstructed() ? select(active, depth, index, tagClass, tagNo, false) : null;
+
+            if (found != null)
+            {
+                final Bytes encoded = cursor.getEncoded();
+
+                for (final int path : found)
+                {
+                    matches.add(new Match(paths[path], path, cursor.headerOffset(), encoded));
+                }
+            }
+
+            if (next != null)
+            {
+                cursor.enter();
+                walk(cursor, next, depth + 1, matches);
+                cursor.exit();
+            }
+        }
+    }
+
+    /**
+     * An element selected by a path.
+     */
+    public static final class Match
+    {
+        private final String path;
+        private final int    pathIndex;
+        private final long   offset;
+        private final Bytes  encoded;
+
+        Match(final String path, final int pathIndex, final long offset, final Bytes encoded)
+        {
+            this.path = path;
+            this.pathIndex = pathIndex;
+            this.offset = offset;
+            this.encoded = encoded;
+        }
+
+        public String getPath()
+        {
+            return path;
+        }
+
+        /**
+         * @return the position of the matching path in the list the query was compiled from.
+         */
+        public int getPathIndex()
+        {
+            return pathIndex;
+        }
+
+        /**
+         * @return the offset of the element's identifier octets in the input.
+         */
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        /**
+         * @return the complete encoding of the element.
+         */
+        public Bytes getEncoded()
+        {
+            return encoded;
+        }
+
+        /**
+         * Decode the element, taking primitive contents as sub lists of the encoding as
+         * {@link ASN1InputStream#ASN1InputStream(Bytes, boolean, boolean)} does.
+         *
+         * @return the element as an ASN.1 object.
+         */
+        public ASN1Primitive getObject()
+        {
+            return ASN1Primitive.fromBytes(encoded, true);
+        }
+
+        @Override
+        public String toString()
+        {
+            return path + "@" + offset;
+        }
+    }
+
+    private static Step[] parse(final String path)
+    {
+        final String[] parts = path.trim().split("/", -1);
+        final Step[] result = new Step[parts.length];
+
+        for (int i = 0; i != parts.length; i++)
+        {
+            final String part = parts[i].trim();
+
+            try
+            {
+                if (part.equals("*"))
+                {
+                    result[i] = new Step(Step.ANY, 0, 0);
+                }
+                else if (part.startsWith("[") && part.endsWith("]"))
+                {
+                    final String[] tag = part.substring(1, part.length() - 1).trim().split("\\s+");
+
+                    if (tag.length == 1)
+                    {
+                        result[i] = new Step(Step.TAG, BERTags.TAGGED, tagNumber(tag[0]));
+                    }
+                    else if (tag.length == 2)
+                    {
+                        result[i] = new Step(Step.TAG, tagClass(tag[0]), tagNumber(tag[1]));
+                    }
+                    else
+                    {
+                        throw new IllegalArgumentException("malformed tag");
+                    }
+                }
+                else
+                {
+                    final int index = Integer.parseInt(part);
+
+                    if (index < 0)
+                    {
+                        throw new IllegalArgumentException("negative position");
+                    }
+
+                    result[i] = new Step(Step.INDEX, index, 0);
+                }
+            }
+            catch (final IllegalArgumentException e)
+            {
+                throw new IllegalArgumentException("invalid step '" + part + "' in path '" + path + "'", e);
+            }
+        }
+
+        return result;
+    }
+
+    private static int tagClass(final String name)
+    {
+        switch (name)
+        {
+            case "UNIVERSAL":
+                return 0;
+            case "APPLICATION":
+                return BERTags.APPLICATION;
+            case "CONTEXT":
+                return BERTags.TAGGED;
+            case "PRIVATE":
+                return BERTags.APPLICATION | BERTags.TAGGED;
+            default:
+                throw new IllegalArgumentException("unknown tag class " + name);
+        }
+    }
+
+    private static int tagNumber(final String number)
+    {
+        final int tagNo = Integer.parseInt(number);
+
+        if (tagNo < 0)
+        {
+            throw new IllegalArgumentException("negative tag number");
+        }
+
+        return tagNo;
+    }
+
+    private static final class Step
+    {
+        static final int INDEX = 0;
+        static final int ANY = 1;
+        static final int TAG = 2;
+
+        final int kind;
+        // the position for INDEX, the tag class for TAG
+        final int value;
+        final int tagNo;
+
+        Step(final int kind, final int value, final int tagNo)
+        {
+            this.kind = kind;
+            this.value = value;
+            this.tagNo = tagNo;
+        }
+
+        boolean matches(final int index, final int tag, final int tagNo)
+        {
+            switch (kind)
+            {
+                case INDEX:
+                    return index == value;
+                case TAG:
+                    return (tag & (BERTags.APPLICATION | BERTags.TAGGED)) == value && tagNo == this.tagNo;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * The state of one pass over a stream. Reading goes through this stream so that header
+     * octets are recorded and the octets of matching elements are captured.
+     */
+    private final class Evaluation
+        extends InputStream
+    {
+        private final InputStream in;
+        private final int         limit;
+
+        private final List<BytesBuilder> captures = new ArrayList<>();
+        private final List<Match>        matches = new ArrayList<>();
+
+        private long    pos;
+        private boolean recordingHeader;
+        private byte[]  header = new byte[16];
+        private int     headerLength;
+        private byte[]  skipBuffer;
+
+        Evaluation(final InputStream in, final int limit)
+        {
+            this.in = in;
+            this.limit = limit;
+        }
+
+        List<Match> run()
+        {
+            walk(allPaths(), 0, Long.MAX_VALUE);
+
+            // elements are completed innermost first
+            matches.sort(DOCUMENT_ORDER);
+
+            return matches;
+        }
+
+        /**
+         * Walk the elements of one level. The active paths have matched all ancestors.
+         *
+         * @param end the offset the level ends at, -1 for an indefinite-length level.
+         */
+        private void walk(final int[] active, final int depth, final long end)
+        {
+            for (int index = 0; ; index++)
+            {
+                if (end >= 0 && pos >= end)
+                {
+                    if (pos > end)
+                    {
+                        throw new ASN1ParsingException("corrupted stream - out of bounds length found");
+                    }
+                    return;
+                }
+
+                final long start = pos;
+
+                headerLength = 0;
+                recordingHeader = true;
+
+                final int tag = read();
+
+                if (tag < 0)
+                {
+                    if (depth == 0)
+                    {
+                        return;
+                    }
+                    throw new ASN1ParsingException("EOF found when tag expected");
+                }
+
+                if (tag == 0)
+                {
+                    if (end != -1 || read() != 0)
+                    {
+                        throw new ASN1ParsingException("unexpected end-of-contents marker");
+                    }
+                    recordingHeader = false;
+                    return;
+                }
+
+                final int tagNo = ASN1InputStream.readTagNumber(this, tag);
+                final int length = ASN1InputStream.readLength(this, limit);
+                final boolean constructed = (tag & BERTags.CONSTRUCTED) != 0;
+
+                recordingHeader = false;
+
+                if (length < 0 && !constructed)
+                {
+                    throw new ASN1ParsingException("indefinite-length primitive encoding encountered");
+                }
+
+                final int[] found = select(active, depth, index, tag, tagNo, true);
+                final int[] next = constructed ? select(active, depth, index, tag, tagNo, false) : null;
+
+                BytesBuilder capture = null;
+
+                if (found != null)
+                {
+                    capture = ByteUtils.newBytesBuilder(length > 0 ? headerLength + length : 256);
+                    capture.write(header, 0, headerLength);
+                    captures.add(capture);
+                }
+
+                if (next != null)
+                {
+                    walk(next, depth + 1, length < 0 ? -1 : pos + length);
+                }
+                else if (length >= 0)
+                {
+                    skipContents(length);
+                }
+                else
+                {
+                    skipIndefinite();
+                }
+
+                if (capture != null)
+                {
+                    captures.remove(captures.size() - 1);
+
+                    final Bytes encoded = capture.build();
+
+                    for (final int path : found)
+                    {
+                        matches.add(new Match(paths[path], path, start, encoded));
+                    }
+                }
+            }
+        }
+
+        private void skipIndefinite()
+        {
+            while (true)
+            {
+                final int tag = read();
+
+                if (tag < 0)
+                {
+                    throw new ASN1ParsingException("EOF found when end-of-contents expected");
+                }
+
+                if (tag == 0)
+                {
+                    if (read() != 0)
+                    {
+                        throw new ASN1ParsingException("malformed end-of-contents marker");
+                    }
+                    return;
+                }
+
+                ASN1InputStream.readTagNumber(this, tag);
+
+                final int length = ASN1InputStream.readLength(this, limit);
+
+                if (length >= 0)
+                {
+                    skipContents(length);
+                }
+                else if ((tag & BERTags.CONSTRUCTED) != 0)
+                {
+                    skipIndefinite();
+                }
+                else
+                {
+                    throw new ASN1ParsingException("indefinite-length primitive encoding encountered");
+                }
+            }
+        }
+
+        private void skipContents(final int length)
+        {
+            int remaining = length;
+
+            if (captures.isEmpty())
+            {
+                // some streams skip past their end, so the last octet is read to make sure
+                // the contents were really there
+                while (remaining > 1)
+                {
+                    final long skipped = skipInput(remaining - 1);
+
+                    if (skipped > 0)
+                    {
+                        pos += skipped;
+                        remaining -= skipped;
+                    }
+                    else if (read() >= 0)
+                    {
+                        remaining--;
+                    }
+                    else
+                    {
+                        throw new ASN1ParsingException("EOF found inside contents");
+                    }
+                }
+
+                if (remaining == 1 && read() < 0)
+                {
+                    throw new ASN1ParsingException("EOF found inside contents");
+                }
+            }
+            else
+            {
+                if (skipBuffer == null)
+                {
+                    skipBuffer = new byte[4096];
+                }
+
+                while (remaining > 0)
+                {
+                    final int n = read(skipBuffer, 0, Math.min(remaining, skipBuffer.length));
+
+                    if (n < 0)
+                    {
+                        throw new ASN1ParsingException("EOF found inside contents");
+                    }
+                    remaining -= n;
+                }
+            }
+        }
+
+        /**
+         * Skip up to n octets of the input, which are neither counted nor captured.
+         */
+        private long skipInput(final long n)
+        {
+            try
+            {
+                return in.skip(n);
+            }
+            catch (final IOException e)
+            {
+                throw wrap(e);
+            }
+        }
+
+        @Override
+        public int read()
+        {
+            final int b = ASN1InputStream.readByte(in);
+
+            if (b >= 0)
+            {
+                pos++;
+
+                if (recordingHeader)
+                {
+                    if (headerLength == header.length)
+                    {
+                        header = Arrays.copyOf(header, headerLength * 2);
+                    }
+                    header[headerLength++] = (byte)b;
+                }
+
+                for (int i = 0; i != captures.size(); i++)
+                {
+                    captures.get(i).write(b);
+                }
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len)
+        {
+            // only used for contents, never while a header is recorded
+            final int n;
+
+            try
+            {
+                n = in.read(b, off, len);
+            }
+            catch (final IOException e)
+            {
+                throw wrap(e);
+            }
+
+            if (n > 0)
+            {
+                pos += n;
+
+                for (int i = 0; i != captures.size(); i++)
+                {
+                    captures.get(i).write(b, off, n);
+                }
+            }
+
+            return n;
+        }
+    }
+}
@@ -54,9 +54,24 @@ public abstract class ASN1Primitive extends ASN1Object {
    *              did not exhaust the available data.
    */
   public static ASN1Primitive fromBytes(final Bytes data){
+    return fromBytes(data, false);
+  }
+
+  /**
+   * Create a base ASN.1 object from a byte stream, optionally with the contents of
+   * primitive objects as views into one copy of data rather than a copy each, see
+   * {@link ASN1InputStream#ASN1InputStream(Bytes, boolean, boolean)}.
+   *
+   * @param data
+   *          the byte stream to parse.
+   * @param sliceInput
+   *          true if primitive contents are views into a copy of data.
+   * @return the base ASN.1 object represented by the byte stream.
+   */
+  public static ASN1Primitive fromBytes(final Bytes data, final boolean sliceInput){
 
     @SuppressWarnings("resource")
-    final ASN1InputStream aIn = new ASN1InputStream(data);
+    final ASN1InputStream aIn = new ASN1InputStream(data, false, sliceInput);
 
     try {
       final ASN1Primitive o = aIn.readObject();
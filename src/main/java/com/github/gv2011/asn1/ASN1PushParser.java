@@ -0,0 +1,411 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * A non-blocking parser which is pushed the input in chunks of any size.
+ * <p>
+ * Each call of {@link #feed(ByteBuffer)} consumes the whole chunk and never waits for more
+ * input; the parser keeps its position in the TLV structure between calls, also inside
+ * indefinite-length encodings. As soon as a top level object is complete it is decoded and
+ * queued for {@link #poll()}. A {@link Listener} may be given to follow the structure as it
+ * arrives, before the enclosing object is complete.
+ * </p><p>
+ * This suits selector based servers: each connection gets a parser, and no thread blocks on
+ * a partially received message. A parser is not thread safe.
+ * </p>
+ */
+public final class ASN1PushParser
+{
+    /**
+     * Receives the structure of the input as it is parsed. Depth 0 is the top level.
+     */
+    public interface Listener
+    {
+        /**
+         * Called when the header of an element has been read.
+         *
+         * @param tagClass 0 for universal, {@link BERTags#APPLICATION}, {@link BERTags#TAGGED} for context
+         * specific, or APPLICATION | TAGGED for private tags.
+         * @param length the length of the contents, or -1 for indefinite-length encoding.
+         */
+        void start(int depth, int tagClass, int tagNo, boolean constructed, int length);
+
+        /**
+         * Called when all of an element has been read.
+         */
+        void end(int depth);
+    }
+
+    private static final int INITIAL_BUFFER = 256;
+    private static final int INITIAL_DEPTH = 16;
+
+    private static final int TAG = 0;
+    private static final int TAG_NUMBER = 1;
+    private static final int LENGTH = 2;
+    private static final int LENGTH_OCTETS = 3;
+    private static final int CONTENTS = 4;
+    private static final int END_OF_CONTENTS = 5;
+
+    private final int      limit;
+    private final Listener listener;
+
+    private final ArrayDeque<ASN1Primitive> objects = new ArrayDeque<>();
+
+    // the octets of the incomplete top level object
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+    private int    length;
+
+    // where the open constructed elements end in buffer, -1 for indefinite length
+    private int[] ends = new int[INITIAL_DEPTH];
+    private int   depth;
+
+    private int     state = TAG;
+    private int     tag;
+    private int     tagNo;
+    private boolean firstTagOctet;
+    private int     contentLength;
+    private int     lengthOctets;
+    private int     remaining;
+
+    /**
+     * Create a parser without a limit on the size of an object.
+     */
+    public ASN1PushParser()
+    {
+        this(Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Create a parser.
+     *
+     * @param limit the maximum size of a top level object, larger ones are rejected as soon as
+     * their length is known.
+     * @param listener receives structural events, may be null.
+     */
+    public ASN1PushParser(
+        final int      limit,
+        final Listener listener)
+    {
+        this.limit = limit;
+        this.listener = listener;
+    }
+
+    /**
+     * Parse the remaining bytes of a chunk of input, consuming all of them.
+     *
+     * @param chunk the next part of the input.
+     * @return the number of complete objects waiting to be polled.
+     * @exception ASN1ParsingException if the input is malformed; the parser is not usable afterwards.
+     */
+    public int feed(
+        final ByteBuffer chunk)
+    {
+        while (chunk.hasRemaining())
+        {
+            if (state == CONTENTS)
+            {
+                final int n = Math.min(remaining, chunk.remaining());
+
+                ensureCapacity(n);
+                chunk.get(buffer, length, n);
+                length += n;
+                remaining -= n;
+
+                if (remaining == 0)
+                {
+                    elementDone();
+                }
+                continue;
+            }
+
+            final int b = chunk.get() & 0xff;
+
+            ensureCapacity(1);
+            buffer[length++] = (byte)b;
+
+            switch (state)
+            {
+                case TAG:
+                    readTag(b);
+                    break;
+                case TAG_NUMBER:
+                    // X.690-0207 8.1.2.4.2
+                    // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
+                    if (firstTagOctet && (b & 0x7f) == 0)
+                    {
+                        throw new ASN1ParsingException("corrupted stream - invalid high tag number found");
+                    }
+                    firstTagOctet = false;
+                    tagNo |= (b & 0x7f);
+                    if ((b & 0x80) != 0)
+                    {
+                        tagNo <<= 7;
+                    }
+                    else
+                    {
+                        state = LENGTH;
+                    }
+                    break;
+                case LENGTH:
+                    readLength(b);
+                    break;
+                case LENGTH_OCTETS:
+                    contentLength = (contentLength << 8) + b;
+                    if (--lengthOctets == 0)
+                    {
+                        if (contentLength < 0)
+                        {
+                            throw new ASN1ParsingException("corrupted stream - negative length found");
+                        }
+                        headerDone();
+                    }
+                    break;
+                case END_OF_CONTENTS:
+                    if (b != 0)
+                    {
+                        throw new ASN1ParsingException("malformed end-of-contents marker");
+                    }
+                    checkBounds(length);
+                    depth--;
+                    elementDone();
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        return objects.size();
+    }
+
+    /**
+     * @return the next complete object, or null if there is none yet.
+     */
+    public ASN1Primitive poll()
+    {
+        return objects.poll();
+    }
+
+    /**
+     * @return true if no object is partially received.
+     */
+    public boolean isIdle()
+    {
+        return length == 0;
+    }
+
+    /**
+     * Signal the end of the input.
+     *
+     * @exception ASN1ParsingException if an object is partially received.
+     */
+    public void endOfInput()
+    {
+        if (!isIdle())
+        {
+            throw new ASN1ParsingException("EOF encountered in middle of object");
+        }
+    }
+
+    private void readTag(final int b)
+    {
+        if (b == 0)
+        {
+            if (depth == 0 || ends[depth - 1] >= 0)
+            {
+                throw new ASN1ParsingException("unexpected end-of-contents marker");
+            }
+
+            state = END_OF_CONTENTS;
+            return;
+        }
+
+        tag = b;
+        tagNo = b & 0x1f;
+
+        if (tagNo == 0x1f)
+        {
+            tagNo = 0;
+            firstTagOctet = true;
+            state = TAG_NUMBER;
+        }
+        else
+        {
+            state = LENGTH;
+        }
+    }
+
+    private void readLength(final int b)
+    {
+        if (b == 0x80)
+        {
+            if ((tag & BERTags.CONSTRUCTED) == 0)
+            {
+                throw new ASN1ParsingException("indefinite-length primitive encoding encountered");
+            }
+
+            contentLength = -1;
+            headerDone();
+        }
+        else if (b > 127)
+        {
+            lengthOctets = b & 0x7f;
+
+            // Note: The invalid long form "0xff" (see X.690 8.1.3.5c) will be caught here
+            if (lengthOctets > 4)
+            {
+                throw new ASN1ParsingException("DER length more than 4 bytes: " + lengthOctets);
+            }
+
+            contentLength = 0;
+            state = LENGTH_OCTETS;
+        }
+        else
+        {
+            contentLength = b;
+            headerDone();
+        }
+    }
+
+    private void headerDone()
+    {
+        final boolean constructed = (tag & BERTags.CONSTRUCTED) != 0;
+
+        checkBounds(contentLength < 0 ? length : (long)length + contentLength);
+
+        if (listener != null)
+        {
+            listener.start(depth, tag & (BERTags.APPLICATION | BERTags.TAGGED), tagNo, constructed, contentLength);
+        }
+
+        state = TAG;
+
+        if (constructed)
+        {
+            if (depth == ends.length)
+            {
+                ends = Arrays.copyOf(ends, depth * 2);
+            }
+
+            ends[depth++] = contentLength < 0 ? -1 : length + contentLength;
+
+            if (contentLength == 0)
+            {
+                depth--;
+                elementDone();
+            }
+        }
+        else if (contentLength == 0)
+        {
+            elementDone();
+        }
+        else
+        {
+            remaining = contentLength;
+            state = CONTENTS;
+        }
+    }
+
+    /**
+     * Check that an element or end-of-contents marker ending at end fits in the nearest
+     * enclosing definite-length element, which may lie outside indefinite-length ones.
+     */
+    private void checkBounds(final long end)
+    {
+        if (end > limit)
+        {
+            throw new ASN1ParsingException("corrupted stream - out of bounds length found");
+        }
+
+        for (int i = depth - 1; i >= 0; i--)
+        {
+            if (ends[i] >= 0)
+            {
+                if (end > ends[i])
+                {
+                    throw new ASN1ParsingException("corrupted stream - out of bounds length found");
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * The element on level depth is complete, close the definite-length elements ending with it.
+     */
+    private void elementDone()
+    {
+        state = TAG;
+
+        if (listener != null)
+        {
+            listener.end(depth);
+        }
+
+        while (depth > 0 && ends[depth - 1] == length)
+        {
+            depth--;
+
+            if (listener != null)
+            {
+                listener.end(depth);
+            }
+        }
+
+        if (depth == 0)
+        {
+            objects.add(new ASN1InputStream(newBytes(buffer, 0, length)).readObject());
+
+            length = 0;
+            if (buffer.length > INITIAL_BUFFER * 256)
+            {
+                buffer = new byte[INITIAL_BUFFER];
+            }
+        }
+    }
+
+    private void ensureCapacity(final int n)
+    {
+        if ((long)length + n > limit)
+        {
+            throw new ASN1ParsingException("object larger than " + limit + " bytes");
+        }
+
+        if (length + n > buffer.length)
+        {
+            buffer = Arrays.copyOf(buffer, (int)Math.min(limit, Math.max(length + n, buffer.length * 2L)));
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+/**
+ * The TLV walk behind {@link ASN1Cursor}, {@link ASN1MappedCursor} and {@link ASN1Index}.
+ * <p>
+ * A scanner reads identifier and length octets from an abstract source addressed by long
+ * offsets, and keeps the position of a cursor in the tree: {@link #next()} moves to the
+ * following element on the current level, {@link #enter()} descends into the current
+ * constructed element and {@link #exit()} returns to the enclosing level.
+ * </p><p>
+ * A scanner is not thread safe.
+ * </p>
+ */
+abstract class ASN1Scanner
+{
+    private static final int INITIAL_DEPTH = 16;
+
+    private final long size;
+    private final int  maxLengthOctets;
+
+    private long[] levelEnd = new long[INITIAL_DEPTH];
+    private int    depth;
+    private long   pos;
+
+    private boolean current;
+    private int     tag;
+    private int     tagNo;
+    private long    headerOffset;
+    private long    contentOffset;
+    private long    contentLength;
+
+    // scratch fields for header decoding, so that scanning does not allocate
+    private int  hTag;
+    private int  hTagNo;
+    private long hContentLength;
+
+    /**
+     * @param size the number of bytes in the source.
+     * @param maxLengthOctets the largest number of length octets accepted in the long form.
+     */
+    ASN1Scanner(final long size, final int maxLengthOctets)
+    {
+        this.size = size;
+        this.maxLengthOctets = maxLengthOctets;
+        levelEnd[0] = size;
+    }
+
+    /**
+     * @return the byte at offset p, as an unsigned value.
+     */
+    abstract int byteAt(long p);
+
+    final long size()
+    {
+        return size;
+    }
+
+    /**
+     * @return the offset the next call to {@link #next()} starts reading at, if the cursor is
+     * not on an element. At the end of an indefinite-length level this is the offset of its
+     * end-of-contents octets.
+     */
+    final long position()
+    {
+        return pos;
+    }
+
+    final boolean next()
+    {
+        if (current)
+        {
+            pos = elementEnd();
+            current = false;
+        }
+
+        final long end = levelEnd[depth];
+        if (end >= 0)
+        {
+            if (pos >= end)
+            {
+                return false;
+            }
+        }
+        else if (isEndOfContents(pos))
+        {
+            return false;
+        }
+
+        contentOffset = scanHeader(pos, end >= 0 ? end : size);
+        tag = hTag;
+        tagNo = hTagNo;
+        headerOffset = pos;
+        contentLength = hContentLength;
+        current = true;
+
+        return true;
+    }
+
+    final void skip()
+    {
+        checkCurrent();
+
+        pos = elementEnd();
+        current = false;
+    }
+
+    final void enter()
+    {
+        checkCurrent();
+
+        if (!isConstructed())
+        {
+            throw new IllegalStateException("cannot enter a primitive element");
+        }
+
+        if (++depth == levelEnd.length)
+        {
+            final long[] tmp = new long[levelEnd.length * 2];
+
+            System.arraycopy(levelEnd, 0, tmp, 0, levelEnd.length);
+
+            levelEnd = tmp;
+        }
+
+        levelEnd[depth] = contentLength < 0 ? -1 : contentOffset + contentLength;
+        pos = contentOffset;
+        current = false;
+    }
+
+    final void exit()
+    {
+        if (depth == 0)
+        {
+            throw new IllegalStateException("cursor is on the top level");
+        }
+
+        if (levelEnd[depth] >= 0)
+        {
+            pos = levelEnd[depth];
+        }
+        else
+        {
+            while (next())
+            {
+                // skip remaining children
+            }
+            pos += 2;
+        }
+
+        depth--;
+        current = false;
+    }
+
+    final int depth()
+    {
+        return depth;
+    }
+
+    final int tag()
+    {
+        checkCurrent();
+
+        return tag;
+    }
+
+    final int tagClass()
+    {
+        return tag() & (BERTags.APPLICATION | BERTags.TAGGED);
+    }
+
+    final int tagNo()
+    {
+        checkCurrent();
+
+        return tagNo;
+    }
+
+    final boolean isConstructed()
+    {
+        return (tag() & BERTags.CONSTRUCTED) != 0;
+    }
+
+    final long headerOffset()
+    {
+        checkCurrent();
+
+        return headerOffset;
+    }
+
+    final long contentOffset()
+    {
+        checkCurrent();
+
+        return contentOffset;
+    }
+
+    final long contentLength()
+    {
+        checkCurrent();
+
+        return contentLength;
+    }
+
+    /**
+     * @return the offset just past the current element, after its end-of-contents octets
+     * if it uses indefinite-length encoding.
+     */
+    final long elementEnd()
+    {
+        checkCurrent();
+
+        if (contentLength >= 0)
+        {
+            return contentOffset + contentLength;
+        }
+
+        // indefinite-length: walk the headers until the matching end-of-contents
+        long p = contentOffset;
+        int nesting = 1;
+
+        while (nesting > 0)
+        {
+            if (isEndOfContents(p))
+            {
+                p += 2;
+                nesting--;
+            }
+            else
+            {
+                p = scanHeader(p, size);
+                if (hContentLength < 0)
+                {
+                    nesting++;
+                }
+                else
+                {
+                    p += hContentLength;
+                }
+            }
+        }
+
+        return p;
+    }
+
+    private boolean isEndOfContents(final long p)
+    {
+        if (p + 1 >= size)
+        {
+            throw new ASN1ParsingException("EOF found when end-of-contents expected");
+        }
+
+        return byteAt(p) == 0 && byteAt(p + 1) == 0;
+    }
+
+    /**
+     * Decode the identifier and length octets at p into the h fields.
+     *
+     * @param p the offset of the identifier octets.
+     * @param end the offset the element has to end by.
+     * @return the offset of the contents octets.
+     */
+    private long scanHeader(long p, final long end)
+    {
+        if (p >= end)
+        {
+            throw new ASN1ParsingException("EOF found when tag expected");
+        }
+
+        final int t = byteAt(p++);
+        if (t == 0)
+        {
+            throw new ASN1ParsingException("unexpected end-of-contents marker");
+        }
+
+        int no = t & 0x1f;
+        if (no == 0x1f)
+        {
+            no = 0;
+
+            int b = p < end ? byteAt(p++) : -1;
+
+            // X.690-0207 8.1.2.4.2
+            // "c) bits 7 to 1 of the first subsequent octet shall not all be zero."
+            if ((b & 0x7f) == 0) // Note: -1 will pass
+            {
+                throw new ASN1ParsingException("corrupted stream - invalid high tag number found");
+            }
+
+            while ((b >= 0) && ((b & 0x80) != 0))
+            {
+                no |= (b & 0x7f);
+                no <<= 7;
+                b = p < end ? byteAt(p++) : -1;
+            }
+
+            if (b < 0)
+            {
+                throw new ASN1ParsingException("EOF found inside tag value.");
+            }
+
+            no |= (b & 0x7f);
+        }
+
+        if (p >= end)
+        {
+            throw new ASN1ParsingException("EOF found when length expected");
+        }
+
+        long length = byteAt(p++);
+
+        if (length == 0x80)
+        {
+            if ((t & BERTags.CONSTRUCTED) == 0)
+            {
+                throw new ASN1ParsingException("indefinite-length primitive encoding encountered");
+            }
+
+            length = -1;
+        }
+        else if (length > 127)
+        {
+            final int octets = (int)(length & 0x7f);
+
+            // Note: The invalid long form "0xff" (see X.690 8.1.3.5c) will be caught here
+            if (octets > maxLengthOctets)
+            {
+                throw new ASN1ParsingException("DER length more than " + maxLengthOctets + " bytes: " + octets);
+            }
+
+            length = 0;
+            for (int i = 0; i < octets; i++)
+            {
+                if (p >= end)
+                {
+                    throw new ASN1ParsingException("EOF found reading length");
+                }
+
+                length = (length << 8) + byteAt(p++);
+            }
+
+            if (length < 0)
+            {
+                throw new ASN1ParsingException("corrupted stream - negative length found");
+            }
+        }
+
+        if (length > end - p)
+        {
+            throw new ASN1ParsingException("corrupted stream - out of bounds length found");
+        }
+
+        hTag = t;
+        hTagNo = no;
+        hContentLength = length;
+
+        return p;
+    }
+
+    private void checkCurrent()
+    {
+        if (!current)
+        {
+            throw new IllegalStateException("cursor is not positioned on an element");
+        }
+    }
+}
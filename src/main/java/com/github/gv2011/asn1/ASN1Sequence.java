@@ -30,11 +30,11 @@ package com.github.gv2011.asn1;
 
 
 
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Iterator;
-import java.util.Vector;
+import java.util.NoSuchElementException;
 
-import com.github.gv2011.asn1.util.Arrays;
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
@@ -88,7 +88,13 @@ public abstract class ASN1Sequence
     extends ASN1Primitive
     implements Iterable<ASN1Encodable>
 {
-    protected Vector<ASN1Encodable> seq = new Vector<>();
+    // the elements are the first count entries, the array is never written to once set
+    // and may be shared with the vector it was built from and with other sequences
+    private ASN1Encodable[] elements = ASN1EncodableVector.EMPTY_ELEMENTS;
+    private int count;
+
+    // computed on first use, 0 until then; racing threads store the same value
+    private int hashCode;
 
     /**
      * Return an ASN1Sequence from the given object.
@@ -199,7 +205,8 @@ public abstract class ASN1Sequence
     protected ASN1Sequence(
         final ASN1Encodable obj)
     {
-        seq.addElement(obj);
+        elements = new ASN1Encodable[] { obj };
+        count = 1;
     }
 
     /**
@@ -209,10 +216,8 @@ public abstract class ASN1Sequence
     protected ASN1Sequence(
         final ASN1EncodableVector v)
     {
-        for (int i = 0; i != v.size(); i++)
-        {
-            seq.addElement(v.get(i));
-        }
+        count = v.size();
+        elements = v.takeElements();
     }
 
     /*
@@ -221,10 +226,8 @@ public abstract class ASN1Sequence
     protected ASN1Sequence(
         final ASN1Encodable[]   array)
     {
-        for (int i = 0; i != array.length; i++)
-        {
-            seq.addElement(array[i]);
-        }
+        elements = array.clone();
+        count = array.length;
     }
 
     public ASN1Encodable[] toArray()
@@ -241,7 +244,27 @@ public abstract class ASN1Sequence
 
     public Enumeration<ASN1Encodable> getObjects()
     {
-        return seq.elements();
+        return new Enumeration<ASN1Encodable>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasMoreElements()
+            {
+                return index < size();
+            }
+
+            @Override
+            public ASN1Encodable nextElement()
+            {
+                if (index >= size())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return getObjectAt(index++);
+            }
+        };
     }
 
     public ASN1SequenceParser parser()
@@ -298,7 +321,12 @@ public abstract class ASN1Sequence
     public ASN1Encodable getObjectAt(
         final int index)
     {
-        return seq.elementAt(index);
+        if (index >= count)
+        {
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + count);
+        }
+
+        return elements[index];
     }
 
     /**
@@ -308,28 +336,34 @@ public abstract class ASN1Sequence
      */
     public int size()
     {
-        return seq.size();
+        return count;
     }
 
     @Override
     public int hashCode()
     {
-        @SuppressWarnings("rawtypes")
-        final Enumeration             e = getObjects();
-        int                     hashCode = size();
+        int hashCode = this.hashCode;
 
-        while (e.hasMoreElements())
+        if (hashCode == 0)
         {
-            final Object o = getNext(e);
-            hashCode *= 17;
+            final int size = size();
+
+            hashCode = size;
 
-            hashCode ^= o.hashCode();
+            for (int i = 0; i != size; i++)
+            {
+                final Object o = getObjectAt(i);
+                hashCode *= 17;
+
+                hashCode ^= o.hashCode();
+            }
+
+            this.hashCode = hashCode;
         }
 
         return hashCode;
     }
 
-    @SuppressWarnings("rawtypes")
     @Override
     boolean asn1Equals(
         final ASN1Primitive o)
@@ -341,18 +375,29 @@ public abstract class ASN1Sequence
 
         final ASN1Sequence   other = (ASN1Sequence)o;
 
-        if (size() != other.size())
+        // hashes already computed settle most mismatches without touching the elements
+        if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode)
         {
             return false;
         }
 
-        final Enumeration s1 = getObjects();
-        final Enumeration s2 = other.getObjects();
+        // the same body octets always decode to the same value
+        final Bytes body = getBodyEncoding();
 
-        while (s1.hasMoreElements())
+        if (body != null && body.equals(other.getBodyEncoding()))
         {
-            final ASN1Encodable obj1 = getNext(s1);
-            final ASN1Encodable obj2 = getNext(s2);
+            return true;
+        }
+
+        if (size() != other.size())
+        {
+            return false;
+        }
+
+        for (int i = 0, size = size(); i != size; i++)
+        {
+            final ASN1Encodable obj1 = getObjectAt(i);
+            final ASN1Encodable obj2 = other.getObjectAt(i);
 
             final ASN1Primitive o1 = obj1.toASN1Primitive();
             final ASN1Primitive o2 = obj2.toASN1Primitive();
@@ -368,14 +413,6 @@ public abstract class ASN1Sequence
         return true;
     }
 
-    @SuppressWarnings("rawtypes")
-    private ASN1Encodable getNext(final Enumeration e)
-    {
-        final ASN1Encodable encObj = (ASN1Encodable)e.nextElement();
-
-        return encObj;
-    }
-
     /**
      * Change current SEQUENCE object to be encoded as {@link DERSequence}.
      * This is part of Distinguished Encoding Rules form serialization.
@@ -385,7 +422,9 @@ public abstract class ASN1Sequence
     {
         final ASN1Sequence derSeq = new DERSequence();
 
-        derSeq.seq = seq;
+        derSeq.elements = elements;
+        derSeq.count = count;
+        derSeq.hashCode = hashCode;
 
         return derSeq;
     }
@@ -399,11 +438,21 @@ public abstract class ASN1Sequence
     {
         final ASN1Sequence dlSeq = new DLSequence();
 
-        dlSeq.seq = seq;
+        dlSeq.elements = elements;
+        dlSeq.count = count;
+        dlSeq.hashCode = hashCode;
 
         return dlSeq;
     }
 
+    /**
+     * Return the contents octets this sequence was decoded from, or null if they are not at hand.
+     */
+    Bytes getBodyEncoding()
+    {
+        return null;
+    }
+
     @Override
     boolean isConstructed()
     {
@@ -416,12 +465,32 @@ public abstract class ASN1Sequence
     @Override
     public String toString()
     {
-        return seq.toString();
+        return Arrays.asList(elements).subList(0, count).toString();
     }
 
     @Override
     public Iterator<ASN1Encodable> iterator()
     {
-        return new Arrays.Iterator<>(toArray());
+        return new Iterator<ASN1Encodable>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public ASN1Encodable next()
+            {
+                if (index >= size())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return getObjectAt(index++);
+            }
+        };
     }
 }
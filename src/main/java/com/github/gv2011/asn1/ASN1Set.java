@@ -30,11 +30,12 @@ package com.github.gv2011.asn1;
 
 
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.Iterator;
-import java.util.Vector;
+import java.util.NoSuchElementException;
 
-import com.github.gv2011.asn1.util.Arrays;
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
@@ -128,9 +129,26 @@ public abstract class ASN1Set
     extends ASN1Primitive
     implements Iterable<ASN1Encodable>
 {
-    private Vector<Object> set = new Vector<>();
+    // sets at least this large are sorted in parallel
+    private static final int PARALLEL_SORT_THRESHOLD = 8192;
+
+    private static final Comparator<SortEntry> DER_ORDER = (a, b) -> compareEncodings(a.encoding, b.encoding);
+
+    // the elements are the first count entries, the array is never written to once set
+    // and may be shared with the vector it was built from and with other sets
+    private ASN1Encodable[] elements = ASN1EncodableVector.EMPTY_ELEMENTS;
+    private int count;
+
+    // computed on first use, 0 until then; racing threads store the same value
+    private int hashCode;
     private boolean isSorted = false;
 
+    // the DER encodings of the elements, in order, once sorted
+    private Bytes[] encodings;
+
+    // the sorted form of an unsorted set, built on first use
+    private volatile ASN1Set derSet;
+
     /**
      * return an ASN1Set from the given object.
      *
@@ -255,7 +273,8 @@ public abstract class ASN1Set
     protected ASN1Set(
         final ASN1Encodable obj)
     {
-        set.addElement(obj);
+        elements = new ASN1Encodable[] { obj };
+        count = 1;
     }
 
     /**
@@ -267,10 +286,8 @@ public abstract class ASN1Set
         final ASN1EncodableVector v,
         final boolean                  doSort)
     {
-        for (int i = 0; i != v.size(); i++)
-        {
-            set.addElement(v.get(i));
-        }
+        count = v.size();
+        elements = v.takeElements();
 
         if (doSort)
         {
@@ -285,10 +302,8 @@ public abstract class ASN1Set
         final ASN1Encodable[]   array,
         final boolean doSort)
     {
-        for (int i = 0; i != array.length; i++)
-        {
-            set.addElement(array[i]);
-        }
+        elements = array.clone();
+        count = array.length;
 
         if (doSort)
         {
@@ -298,7 +313,27 @@ public abstract class ASN1Set
 
     public Enumeration<Object> getObjects()
     {
-        return set.elements();
+        return new Enumeration<Object>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasMoreElements()
+            {
+                return index < size();
+            }
+
+            @Override
+            public Object nextElement()
+            {
+                if (index >= size())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return getObjectAt(index++);
+            }
+        };
     }
 
     /**
@@ -310,7 +345,12 @@ public abstract class ASN1Set
     public ASN1Encodable getObjectAt(
         final int index)
     {
-        return (ASN1Encodable)set.elementAt(index);
+        if (index >= count)
+        {
+            throw new ArrayIndexOutOfBoundsException(index + " >= " + count);
+        }
+
+        return elements[index];
     }
 
     /**
@@ -320,7 +360,7 @@ public abstract class ASN1Set
      */
     public int size()
     {
-        return set.size();
+        return count;
     }
 
     public ASN1Encodable[] toArray()
@@ -383,15 +423,23 @@ public abstract class ASN1Set
     @Override
     public int hashCode()
     {
-        final Enumeration<Object>             e = getObjects();
-        int                     hashCode = size();
+        int hashCode = this.hashCode;
 
-        while (e.hasMoreElements())
+        if (hashCode == 0)
         {
-            final Object o = getNext(e);
-            hashCode *= 17;
+            final int size = size();
+
+            hashCode = size;
+
+            for (int i = 0; i != size; i++)
+            {
+                final Object o = getNonNull(i);
+                hashCode *= 17;
+
+                hashCode ^= o.hashCode();
+            }
 
-            hashCode ^= o.hashCode();
+            this.hashCode = hashCode;
         }
 
         return hashCode;
@@ -408,26 +456,26 @@ public abstract class ASN1Set
         {
             final ASN1Set derSet = new DERSet();
 
-            derSet.set = set;
+            derSet.elements = elements;
+            derSet.count = count;
+            derSet.hashCode = hashCode;
+            derSet.isSorted = true;
+            derSet.encodings = encodings;
 
             return derSet;
         }
         else
         {
-            final Vector<Object> v = new Vector<>();
+            ASN1Set result = derSet;
 
-            for (int i = 0; i != set.size(); i++)
+            // racing threads build equal sets, any one of them may be kept
+            if (result == null)
             {
-                v.addElement(set.elementAt(i));
+                result = new DERSet(toArray());
+                derSet = result;
             }
 
-            final ASN1Set derSet = new DERSet();
-
-            derSet.set = v;
-
-            derSet.sort();
-
-            return derSet;
+            return result;
         }
     }
 
@@ -440,7 +488,9 @@ public abstract class ASN1Set
     {
         final ASN1Set derSet = new DLSet();
 
-        derSet.set = set;
+        derSet.elements = elements;
+        derSet.count = count;
+        derSet.hashCode = hashCode;
 
         return derSet;
     }
@@ -456,18 +506,35 @@ public abstract class ASN1Set
 
         final ASN1Set   other = (ASN1Set)o;
 
-        if (size() != other.size())
+        // hashes already computed settle most mismatches without touching the elements
+        if (hashCode != 0 && other.hashCode != 0 && hashCode != other.hashCode)
         {
             return false;
         }
 
-        final Enumeration<Object> s1 = getObjects();
-        final Enumeration<Object> s2 = other.getObjects();
+        // the same body octets always decode to the same value
+        final Bytes body = getBodyEncoding();
+
+        if (body != null && body.equals(other.getBodyEncoding()))
+        {
+            return true;
+        }
 
-        while (s1.hasMoreElements())
+        // DER encodings kept from sorting are compared as they are
+        if (encodings != null && other.encodings != null && Arrays.equals(encodings, other.encodings))
         {
-            final ASN1Encodable obj1 = getNext(s1);
-            final ASN1Encodable obj2 = getNext(s2);
+            return true;
+        }
+
+        if (size() != other.size())
+        {
+            return false;
+        }
+
+        for (int i = 0, size = size(); i != size; i++)
+        {
+            final ASN1Encodable obj1 = getNonNull(i);
+            final ASN1Encodable obj2 = other.getNonNull(i);
 
             final ASN1Primitive o1 = obj1.toASN1Primitive();
             final ASN1Primitive o2 = obj2.toASN1Primitive();
@@ -483,9 +550,9 @@ public abstract class ASN1Set
         return true;
     }
 
-    private ASN1Encodable getNext(final Enumeration<Object> e)
+    private ASN1Encodable getNonNull(final int index)
     {
-        final ASN1Encodable encObj = (ASN1Encodable)e.nextElement();
+        final ASN1Encodable encObj = getObjectAt(index);
 
         // unfortunately null was allowed as a substitute for DER null
         if (encObj == null)
@@ -497,21 +564,22 @@ public abstract class ASN1Set
     }
 
     /**
-     * return true if a <= b (arrays are assumed padded with zeros).
+     * Compare two encodings as unsigned octet strings, a proper prefix coming first.
      */
-    private boolean lessThanOrEqual(
+    private static int compareEncodings(
          final Bytes a,
          final Bytes b)
     {
         final int len = Math.min(a.size(), b.size());
         for (int i = 0; i != len; ++i)
         {
-            if (a.getByte(i) != b.getByte(i))
+            final int diff = (a.getByte(i) & 0xff) - (b.getByte(i) & 0xff);
+            if (diff != 0)
             {
-                return (a.getByte(i) & 0xff) < (b.getByte(i) & 0xff);
+                return diff;
             }
         }
-        return len == a.size();
+        return a.size() - b.size();
     }
 
     private Bytes getDEREncoded(
@@ -520,52 +588,69 @@ public abstract class ASN1Set
             return obj.toASN1Primitive().getEncoded(ASN1Encoding.DER);
     }
 
+    /**
+     * Sort the elements into DER order. Each element is encoded once, the encodings are
+     * kept for writing the set.
+     */
     protected void sort()
     {
         if (!isSorted)
         {
             isSorted = true;
-            if (set.size() > 1)
+            if (count > 1)
             {
-                boolean    swapped = true;
-                int        lastSwap = set.size() - 1;
+                final SortEntry[] entries = new SortEntry[count];
 
-                while (swapped)
+                for (int i = 0; i != entries.length; i++)
                 {
-                    int    index = 0;
-                    int    swapIndex = 0;
-                    Bytes a = getDEREncoded((ASN1Encodable)set.elementAt(0));
-
-                    swapped = false;
-
-                    while (index != lastSwap)
-                    {
-                        final Bytes b = getDEREncoded((ASN1Encodable)set.elementAt(index + 1));
+                    final ASN1Encodable element = elements[i];
 
-                        if (lessThanOrEqual(a, b))
-                        {
-                            a = b;
-                        }
-                        else
-                        {
-                            final Object  o = set.elementAt(index);
-
-                            set.setElementAt(set.elementAt(index + 1), index);
-                            set.setElementAt(o, index + 1);
+                    entries[i] = new SortEntry(element, getDEREncoded(element));
+                }
 
-                            swapped = true;
-                            swapIndex = index;
-                        }
+                // both sorts are stable, so equal elements keep their order
+                if (entries.length >= PARALLEL_SORT_THRESHOLD)
+                {
+                    Arrays.parallelSort(entries, DER_ORDER);
+                }
+                else
+                {
+                    Arrays.sort(entries, DER_ORDER);
+                }
 
-                        index++;
-                    }
+                // the old array may be shared, so the sorted order goes into a new one
+                final ASN1Encodable[] sortedElements = new ASN1Encodable[entries.length];
+                final Bytes[] sorted = new Bytes[entries.length];
 
-                    lastSwap = swapIndex;
+                for (int i = 0; i != entries.length; i++)
+                {
+                    sortedElements[i] = entries[i].element;
+                    sorted[i] = entries[i].encoding;
                 }
+
+                elements = sortedElements;
+                encodings = sorted;
+                hashCode = 0;
             }
         }
     }
 
+    /**
+     * Return the DER encodings of the elements in order, or null if the set has not been sorted.
+     */
+    Bytes[] getSortedEncodings()
+    {
+        return encodings;
+    }
+
+    /**
+     * Return the contents octets this set was decoded from, or null if they are not at hand.
+     */
+    Bytes getBodyEncoding()
+    {
+        return null;
+    }
+
     @Override
     boolean isConstructed()
     {
@@ -578,12 +663,44 @@ public abstract class ASN1Set
     @Override
     public String toString()
     {
-        return set.toString();
+        return Arrays.asList(elements).subList(0, count).toString();
     }
 
     @Override
     public Iterator<ASN1Encodable> iterator()
     {
-        return new Arrays.Iterator<>(toArray());
+        return new Iterator<ASN1Encodable>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size();
+            }
+
+            @Override
+            public ASN1Encodable next()
+            {
+                if (index >= size())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return getObjectAt(index++);
+            }
+        };
+    }
+
+    private static final class SortEntry
+    {
+        final ASN1Encodable element;
+        final Bytes         encoding;
+
+        SortEntry(final ASN1Encodable element, final Bytes encoding)
+        {
+            this.element = element;
+            this.encoding = encoding;
+        }
     }
 }
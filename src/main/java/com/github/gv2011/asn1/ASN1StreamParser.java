@@ -29,7 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import static com.github.gv2011.util.ex.Exceptions.call;
 
 import java.io.InputStream;
 
@@ -153,7 +152,7 @@ public class ASN1StreamParser implements ASN1Parser{
     @Override
     @SuppressWarnings("resource")
     public ASN1Encodable readObject(){
-        final int tag = call(_in::read);
+        final int tag = ASN1InputStream.readByte(_in);
         if (tag == -1)
         {
             return null;
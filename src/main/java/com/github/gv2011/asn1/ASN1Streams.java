@@ -0,0 +1,191 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * {@link Stream}s of ASN.1 objects.
+ * <p>
+ * The element boundaries are found up front with a scan of the headers only, nothing is
+ * decoded by it. The streams' spliterators then divide the elements by position, so a parallel
+ * stream decodes the elements on several threads, each element exactly once and on demand.
+ * </p>
+ */
+public final class ASN1Streams
+{
+    private ASN1Streams()
+    {
+    }
+
+    /**
+     * Stream the elements of an encoded SEQUENCE OF or SET OF, or of any other constructed element.
+     *
+     * @param encoding the encoding of a single constructed object.
+     * @return the elements, in encoding order.
+     * @exception IllegalArgumentException if the encoding does not start with a constructed object.
+     * @exception ASN1Exception if the encoding is followed by further data.
+     */
+    public static Stream<ASN1Encodable> elements(final Bytes encoding)
+    {
+        final ASN1Cursor cursor = new ASN1Cursor(encoding);
+
+        if (!cursor.next() || !cursor.isConstructed())
+        {
+            throw new IllegalArgumentException("constructed object expected");
+        }
+
+        final int[] offsets = cursor.childOffsets();
+
+        if (cursor.next())
+        {
+            throw new ASN1Exception("Extra data detected in stream");
+        }
+
+        return StreamSupport.stream(new ElementSpliterator(i ->
+            new ASN1InputStream(encoding.subList(offsets[i], offsets[i + 1])).readObject(),
+            0, offsets.length - 1), false);
+    }
+
+    /**
+     * Stream the objects of a file holding one or more concatenated encodings, such as a dump
+     * of DER certificates. The file is memory mapped, so it may be larger than the heap, and is
+     * closed when the stream is closed, so use the stream in a try-with-resources statement.
+     *
+     * @param file the file to read.
+     * @return the top level objects of the file, in file order.
+     */
+    public static Stream<ASN1Encodable> objects(final Path file)
+    {
+        final ASN1MappedCursor cursor = new ASN1MappedCursor(file);
+
+        try
+        {
+            long[] offsets = new long[64];
+            int count = 0;
+
+            while (cursor.next())
+            {
+                if (count + 1 == offsets.length)
+                {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[count++] = cursor.headerOffset();
+            }
+            offsets[count] = cursor.size();
+
+            final long[] bounds = offsets;
+
+            return StreamSupport.stream(new ElementSpliterator(i -> cursor.decode(bounds[i], bounds[i + 1]), 0, count), false)
+                .onClose(cursor::close);
+        }
+        catch (final RuntimeException e)
+        {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decodes the elements in a range of positions, splitting the range in halves.
+     */
+    private static final class ElementSpliterator
+        implements Spliterator<ASN1Encodable>
+    {
+        private final IntFunction<ASN1Encodable> decoder;
+        private int from;
+        private final int to;
+
+        ElementSpliterator(final IntFunction<ASN1Encodable> decoder, final int from, final int to)
+        {
+            this.decoder = decoder;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super ASN1Encodable> action)
+        {
+            if (from >= to)
+            {
+                return false;
+            }
+
+            action.accept(decoder.apply(from++));
+
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super ASN1Encodable> action)
+        {
+            while (from < to)
+            {
+                action.accept(decoder.apply(from++));
+            }
+        }
+
+        @Override
+        public Spliterator<ASN1Encodable> trySplit()
+        {
+            final int middle = (from + to) >>> 1;
+
+            if (middle <= from)
+            {
+                return null;
+            }
+
+            final Spliterator<ASN1Encodable> prefix = new ElementSpliterator(decoder, from, middle);
+
+            from = middle;
+
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
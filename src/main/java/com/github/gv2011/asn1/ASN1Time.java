@@ -0,0 +1,64 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.time.Instant;
+
+/**
+ * General interface implemented by ASN.1 time objects, {@link ASN1UTCTime} and
+ * {@link ASN1GeneralizedTime}.
+ * <p>
+ * Times are ordered by the instant they represent, so the ordering is inconsistent with
+ * equals: "20020122122220Z" and "20020122122220.0Z" compare as equal but are different
+ * encodings. Two times in canonical DER form, YYMMDDHHMMSSZ or YYYYMMDDHHMMSS[.f]Z, are
+ * compared on their content octets without being parsed.
+ * </p>
+ */
+public interface ASN1Time
+    extends Comparable<ASN1Time>
+{
+    /**
+     * Return the instant this time represents.
+     * @return the instant of this time.
+     * @throws IllegalArgumentException if the time string is malformed.
+     */
+    public Instant getInstant();
+
+    /**
+     * Compare this time with an instant.
+     * <p>
+     * When comparing many times against the same bound it is cheaper to convert the bound
+     * once to a {@link DERGeneralizedTime} and use {@link #compareTo(ASN1Time)}.
+     * </p>
+     * @param instant the instant to compare with.
+     * @return a negative value, zero or a positive value as this time is before, at or after the instant.
+     */
+    public int compareTo(Instant instant);
+}
@@ -30,9 +30,11 @@ package com.github.gv2011.asn1;
 
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
 import java.util.Date;
-import java.util.SimpleTimeZone;
 
 import com.github.gv2011.asn1.util.Strings;
 import com.github.gv2011.util.bytes.Bytes;
@@ -58,7 +60,14 @@ import com.github.gv2011.util.bytes.Bytes;
  * </blockquote>
  * where "YYMMDD" represents the day following the midnight in question.
  */
-public class ASN1UTCTime extends ASN1PrimitiveBytes{
+public class ASN1UTCTime extends ASN1PrimitiveBytes implements ASN1Time{
+
+    // 1950-01-01T00:00:00Z and 2050-01-01T00:00:00Z
+    private static final long MIN_EPOCH_SECOND = -631152000L;
+    private static final long MAX_EPOCH_SECOND = 2524608000L;
+
+    // parsed on first use, racing threads compute the same value
+    private volatile Instant instant;
 
     /**
      * return an UTC Time from the passed in object.
@@ -131,22 +140,44 @@ public class ASN1UTCTime extends ASN1PrimitiveBytes{
         this(Strings.toByteArray(time));
         try
         {
-            getDate();
+            getInstant();
         }
-        catch (final ParseException e)
+        catch (final IllegalArgumentException e)
         {
             throw new IllegalArgumentException("invalid date string: " + e.getMessage());
         }
     }
 
     public ASN1UTCTime(final Date time){
-      this(Strings.toByteArray(format(time)));
+      this(TimeCodec.formatUTCTime(Math.floorDiv(time.getTime(), 1000)));
     }
 
-    private static final String format(final Date time){
-      final SimpleDateFormat dateF = new SimpleDateFormat("yyMMddHHmmss'Z'");
-      dateF.setTimeZone(new SimpleTimeZone(0,"Z"));
-      return dateF.format(time);
+    /**
+     * Constructor from an instant, fractions of a second are dropped.
+     *
+     * @param time the instant of interest.
+     * @exception IllegalArgumentException if the time is outside 1950 to 2049.
+     */
+    public ASN1UTCTime(final Instant time){
+      this(TimeCodec.formatUTCTime(checkRange(time.getEpochSecond())));
+    }
+
+    /**
+     * Constructor from milliseconds since the epoch, fractions of a second are dropped.
+     *
+     * @param epochMillis the time of interest.
+     * @exception IllegalArgumentException if the time is outside 1950 to 2049.
+     */
+    public ASN1UTCTime(final long epochMillis){
+      this(TimeCodec.formatUTCTime(checkRange(Math.floorDiv(epochMillis, 1000))));
+    }
+
+    private static long checkRange(final long epochSecond){
+      if (epochSecond < MIN_EPOCH_SECOND || epochSecond >= MAX_EPOCH_SECOND)
+      {
+          throw new IllegalArgumentException("time outside UTCTime range 1950 to 2049");
+      }
+      return epochSecond;
     }
 
     ASN1UTCTime(final Bytes time){
@@ -162,9 +193,17 @@ public class ASN1UTCTime extends ASN1PrimitiveBytes{
      */
     public Date getDate()throws ParseException
     {
-        final SimpleDateFormat dateF = new SimpleDateFormat("yyMMddHHmmssz");
+        // the century SimpleDateFormat would pick for a two digit year
+        final int pivotYear = Year.now(ZoneOffset.UTC).getValue() - 80;
 
-        return dateF.parse(getTime());
+        try
+        {
+            return new Date(TimeCodec.parseUTCTime(string, pivotYear).toEpochMilli());
+        }
+        catch (final IllegalArgumentException e)
+        {
+            throw new ParseException(e.getMessage(), 0);
+        }
     }
 
     /**
@@ -177,11 +216,66 @@ public class ASN1UTCTime extends ASN1PrimitiveBytes{
     public Date getAdjustedDate()
         throws ParseException
     {
-        final SimpleDateFormat dateF = new SimpleDateFormat("yyyyMMddHHmmssz");
+        try
+        {
+            return new Date(getEpochMillis());
+        }
+        catch (final IllegalArgumentException e)
+        {
+            throw new ParseException(e.getMessage(), 0);
+        }
+    }
 
-        dateF.setTimeZone(new SimpleTimeZone(0, "Z"));
+    /**
+     * Return the time as an instant in the range of 1950 - 2049.
+     *
+     * @return the instant this time represents.
+     * @exception IllegalArgumentException if the time string is malformed.
+     */
+    @Override
+    public Instant getInstant()
+    {
+        Instant result = instant;
 
-        return dateF.parse(getAdjustedTime());
+        if (result == null)
+        {
+            result = TimeCodec.parseUTCTime(string, 1950);
+            instant = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Return the time as an offset date time in the range of 1950 - 2049, using the
+     * offset given in the time string.
+     *
+     * @return the time with its original offset.
+     * @exception IllegalArgumentException if the time string is malformed.
+     */
+    public OffsetDateTime getOffsetDateTime()
+    {
+        return getInstant().atOffset(ZoneOffset.ofTotalSeconds(TimeCodec.zoneOffsetSeconds(string)));
+    }
+
+    /**
+     * Return the time in milliseconds since the epoch, in the range of 1950 - 2049.
+     *
+     * @exception IllegalArgumentException if the time string is malformed.
+     */
+    public long getEpochMillis()
+    {
+        return getInstant().getEpochSecond() * 1000;
+    }
+
+    /**
+     * Return the time in nanoseconds since the epoch, in the range of 1950 - 2049.
+     *
+     * @exception IllegalArgumentException if the time string is malformed.
+     */
+    public long getEpochNanos()
+    {
+        return getInstant().getEpochSecond() * 1000000000L;
     }
 
     /**
@@ -261,6 +355,20 @@ public class ASN1UTCTime extends ASN1PrimitiveBytes{
         }
     }
 
+    @Override
+    public int compareTo(
+        final ASN1Time other)
+    {
+        return TimeCodec.compare(this, other);
+    }
+
+    @Override
+    public int compareTo(
+        final Instant instant)
+    {
+        return getInstant().compareTo(instant);
+    }
+
     @Override
     boolean isConstructed()
     {
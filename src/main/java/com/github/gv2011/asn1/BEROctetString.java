@@ -29,7 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
 import static com.github.gv2011.util.bytes.ByteUtils.newBytesBuilder;
 
 import java.util.Enumeration;
@@ -130,11 +129,7 @@ public class BEROctetString extends ASN1OctetString {
                 end = i + MAX_LENGTH;
             }
 
-            final byte[] nStr = new byte[end - i];
-
-            System.arraycopy(string, i, nStr, 0, nStr.length);
-
-            vec.addElement(new DEROctetString(newBytes(nStr)));
+            vec.addElement(new DEROctetString(string.subList(i, end)));
          }
 
          return vec;
@@ -181,12 +176,10 @@ public class BEROctetString extends ASN1OctetString {
     static BEROctetString fromSequence(final ASN1Sequence seq)
     {
         final ASN1OctetString[]     v = new ASN1OctetString[seq.size()];
-        final Enumeration<ASN1Encodable> e = seq.getObjects();
-        int                   index = 0;
 
-        while (e.hasMoreElements())
+        for (int i = 0; i != v.length; i++)
         {
-            v[index++] = (ASN1OctetString)e.nextElement();
+            v[i] = (ASN1OctetString)seq.getObjectAt(i);
         }
 
         return new BEROctetString(v);
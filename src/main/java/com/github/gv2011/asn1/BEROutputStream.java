@@ -51,11 +51,11 @@ public class BEROutputStream
         }
         else if (obj instanceof ASN1Primitive)
         {
-            ((ASN1Primitive)obj).encode(this);
+            writePrimitive((ASN1Primitive)obj);
         }
         else if (obj instanceof ASN1Encodable)
         {
-            ((ASN1Encodable)obj).toASN1Primitive().encode(this);
+            writePrimitive(((ASN1Encodable)obj).toASN1Primitive());
         }
         else
         {
@@ -38,6 +38,8 @@ import java.io.OutputStream;
 public class BERSequenceGenerator
     extends BERGenerator
 {
+    private final BEROutputStream _berOut = new BEROutputStream(_out);
+
     /**
      * Use the passed in stream as the target for the generator, writing out the header tag
      * for a constructed SEQUENCE.
@@ -84,7 +86,7 @@ public class BERSequenceGenerator
         ASN1Encodable object)
         throws IOException
     {
-        object.toASN1Primitive().encode(new BEROutputStream(_out));
+        _berOut.writePrimitive(object.toASN1Primitive());
     }
 
     /**
@@ -98,27 +98,25 @@ public class BERTaggedObject
     @Override
     int encodedLength()
     {
+        // tag, indefinite length, contents and end-of-contents octets
+        int length = StreamUtil.calculateTagLength(tagNo) + 1 + 2;
+
         if (!empty)
         {
-            final ASN1Primitive primitive = obj.toASN1Primitive();
-            int length = primitive.encodedLength();
-
-            if (explicit)
+            if (!explicit)
             {
-                return StreamUtil.calculateTagLength(tagNo) + StreamUtil.calculateBodyLength(length) + length;
+                for (final Enumeration<?> e = getContents(); e.hasMoreElements();)
+                {
+                    length += ((ASN1Encodable)e.nextElement()).toASN1Primitive().encodedLength();
+                }
             }
             else
             {
-                // header length already in calculation
-                length = length - 1;
-
-                return StreamUtil.calculateTagLength(tagNo) + length;
+                length += obj.toASN1Primitive().encodedLength();
             }
         }
-        else
-        {
-            return StreamUtil.calculateTagLength(tagNo) + 1;
-        }
+
+        return length;
     }
 
     @Override
@@ -132,32 +130,7 @@ public class BERTaggedObject
         {
             if (!explicit)
             {
-                Enumeration<?> e;
-                if (obj instanceof ASN1OctetString)
-                {
-                    if (obj instanceof BEROctetString)
-                    {
-                        e = ((BEROctetString)obj).getObjects();
-                    }
-                    else
-                    {
-                        final ASN1OctetString             octs = (ASN1OctetString)obj;
-                        final BEROctetString berO = new BEROctetString(octs.getOctets());
-                        e = berO.getObjects();
-                    }
-                }
-                else if (obj instanceof ASN1Sequence)
-                {
-                    e = ((ASN1Sequence)obj).getObjects();
-                }
-                else if (obj instanceof ASN1Set)
-                {
-                    e = ((ASN1Set)obj).getObjects();
-                }
-                else
-                {
-                    throw new RuntimeException("not implemented: " + obj.getClass().getName());
-                }
+                final Enumeration<?> e = getContents();
 
                 while (e.hasMoreElements())
                 {
@@ -173,4 +146,36 @@ public class BERTaggedObject
         out.write(0x00);
         out.write(0x00);
     }
+
+    /**
+     * Return the elements making up the contents of an implicitly tagged object.
+     */
+    private Enumeration<?> getContents()
+    {
+        if (obj instanceof ASN1OctetString)
+        {
+            if (obj instanceof BEROctetString)
+            {
+                return ((BEROctetString)obj).getObjects();
+            }
+            else
+            {
+                final ASN1OctetString             octs = (ASN1OctetString)obj;
+                final BEROctetString berO = new BEROctetString(octs.getOctets());
+                return berO.getObjects();
+            }
+        }
+        else if (obj instanceof ASN1Sequence)
+        {
+            return ((ASN1Sequence)obj).getObjects();
+        }
+        else if (obj instanceof ASN1Set)
+        {
+            return ((ASN1Set)obj).getObjects();
+        }
+        else
+        {
+            throw new RuntimeException("not implemented: " + obj.getClass().getName());
+        }
+    }
 }
@@ -0,0 +1,95 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reading the remaining bytes of a buffer, without copying them.
+ */
+class ByteBufferInputStream
+    extends InputStream
+{
+    private final ByteBuffer buf;
+
+    ByteBufferInputStream(
+        final ByteBuffer buf)
+    {
+        this.buf = buf;
+    }
+
+    @Override
+    public int read()
+    {
+        if (!buf.hasRemaining())
+        {
+            return -1;
+        }
+
+        return buf.get() & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len)
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+
+        if (!buf.hasRemaining())
+        {
+            return -1;
+        }
+
+        final int numRead = Math.min(len, buf.remaining());
+
+        buf.get(b, off, numRead);
+
+        return numRead;
+    }
+
+    @Override
+    public long skip(final long n)
+    {
+        final int skipped = (int)Math.max(0, Math.min(n, buf.remaining()));
+
+        buf.position(buf.position() + skipped);
+
+        return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+        return buf.remaining();
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.io.InputStream;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Input stream over an in-memory encoding which can hand out the content of
+ * primitive objects as {@link BytesView}s of the encoding instead of reading them into
+ * a temporary array that is then copied again.
+ * <p>
+ * The encoding is copied to an array once, unless it is a view already, for example
+ * the content of an object decoded by another such stream. Slices share that array and
+ * keep it reachable for as long as any of them is.
+ * </p>
+ */
+class BytesInputStream
+    extends InputStream
+{
+    private final byte[] array;
+    private final int    end;
+    private int          pos;
+
+    BytesInputStream(
+        final Bytes bytes)
+    {
+        final BytesView view = BytesView.of(bytes);
+
+        array = view.array();
+        pos = view.offset();
+        end = pos + view.size();
+    }
+
+    @Override
+    public int read()
+    {
+        return pos == end ? -1 : array[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] buf, final int off, final int len)
+    {
+        if (len == 0)
+        {
+            return 0;
+        }
+        if (pos == end)
+        {
+            return -1;
+        }
+
+        final int numRead = Math.min(len, end - pos);
+
+        System.arraycopy(array, pos, buf, off, numRead);
+        pos += numRead;
+
+        return numRead;
+    }
+
+    @Override
+    public long skip(final long n)
+    {
+        final int skipped = (int)Math.max(0, Math.min(n, end - pos));
+
+        pos += skipped;
+
+        return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+        return end - pos;
+    }
+
+    /**
+     * Return the next length bytes as a view of the underlying array.
+     *
+     * @param length the number of bytes to take.
+     * @return the slice, or null if fewer than length bytes are left.
+     */
+    Bytes readSlice(final int length)
+    {
+        if (length > end - pos)
+        {
+            return null;
+        }
+
+        final Bytes slice = new BytesView(array, pos, length);
+
+        pos += length;
+
+        return slice;
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.ex.Exceptions.run;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.github.gv2011.util.bytes.AbstractBytes;
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * A range of an array as {@link Bytes}, without a copy. Sub lists are views of the same
+ * array, so every view keeps all of it reachable. The array must not be modified while
+ * views of it are in use.
+ */
+final class BytesView
+    extends AbstractBytes
+{
+    private final byte[] array;
+    private final int    offset;
+    private final int    length;
+
+    BytesView(
+        final byte[] array,
+        final int    offset,
+        final int    length)
+    {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return bytes as a view, copying it to an array only if it is not one already.
+     */
+    static BytesView of(
+        final Bytes bytes)
+    {
+        if (bytes instanceof BytesView)
+        {
+            return (BytesView)bytes;
+        }
+
+        final byte[] array = bytes.toByteArray();
+
+        return new BytesView(array, 0, array.length);
+    }
+
+    byte[] array()
+    {
+        return array;
+    }
+
+    int offset()
+    {
+        return offset;
+    }
+
+    @Override
+    public long longSize()
+    {
+        return length;
+    }
+
+    @Override
+    public byte get(
+        final long index)
+    {
+        if (index < 0 || index >= length)
+        {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + length);
+        }
+
+        return array[offset + (int)index];
+    }
+
+    @Override
+    public byte getByte(
+        final int index)
+    {
+        return get(index);
+    }
+
+    @Override
+    public Bytes subList(
+        final long from,
+        final long to)
+    {
+        checkIndices(from, to, length);
+
+        return from == 0 && to == length ? this : new BytesView(array, offset + (int)from, (int)(to - from));
+    }
+
+    @Override
+    public byte[] toByteArray()
+    {
+        return Arrays.copyOfRange(array, offset, offset + length);
+    }
+
+    @Override
+    public int write(
+        final byte[] b,
+        final int    off,
+        final int    len)
+    {
+        final int n = Math.min(len, length);
+
+        System.arraycopy(array, offset, b, off, n);
+
+        return n;
+    }
+
+    @Override
+    public void write(
+        final OutputStream out)
+    {
+        run(() -> out.write(array, offset, length));
+    }
+
+    @Override
+    public InputStream openStream()
+    {
+        return new ByteArrayInputStream(array, offset, length);
+    }
+
+    @Override
+    public String utf8ToString()
+    {
+        return new String(array, offset, length, StandardCharsets.UTF_8);
+    }
+}
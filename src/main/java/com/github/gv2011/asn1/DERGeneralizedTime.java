@@ -29,6 +29,7 @@ package com.github.gv2011.asn1;
  */
 
 
+import java.time.Instant;
 import java.util.Date;
 
 import com.github.gv2011.util.bytes.Bytes;
@@ -50,6 +51,16 @@ public class DERGeneralizedTime
         super(time);
     }
 
+    public DERGeneralizedTime(final Instant time)
+    {
+        super(time);
+    }
+
+    public DERGeneralizedTime(final long epochMillis)
+    {
+        super(epochMillis);
+    }
+
     public DERGeneralizedTime(final String time)
     {
         super(time);
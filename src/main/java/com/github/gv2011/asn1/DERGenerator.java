@@ -70,13 +70,13 @@ public abstract class DERGenerator
 
     private void writeLength(
         OutputStream out,
-        int          length)
+        long         length)
         throws IOException
     {
         if (length > 127)
         {
             int size = 1;
-            int val = length;
+            long val = length;
 
             while ((val >>>= 8) != 0)
             {
@@ -143,4 +143,58 @@ public abstract class DERGenerator
             writeDEREncoded(_out, tag, bytes);
         }
     }
+
+    /**
+     * Write the header octets for contents of bodyLength octets, including any tag wrapping,
+     * leaving the contents to be written by the caller.
+     */
+    void writeDERHeader(
+        int       tag,
+        long      bodyLength)
+        throws IOException
+    {
+        if (_tagged)
+        {
+            int tagNum = _tagNo | BERTags.TAGGED;
+
+            if (_isExplicit)
+            {
+                int newTag = _tagNo | BERTags.CONSTRUCTED | BERTags.TAGGED;
+
+                _out.write(newTag);
+                writeLength(_out, 1 + lengthOfLength(bodyLength) + bodyLength);
+                _out.write(tag);
+            }
+            else if ((tag & BERTags.CONSTRUCTED) != 0)
+            {
+                _out.write(tagNum | BERTags.CONSTRUCTED);
+            }
+            else
+            {
+                _out.write(tagNum);
+            }
+        }
+        else
+        {
+            _out.write(tag);
+        }
+
+        writeLength(_out, bodyLength);
+    }
+
+    private static int lengthOfLength(
+        long length)
+    {
+        int count = 1;
+
+        if (length > 127)
+        {
+            for (long val = length; val != 0; val >>>= 8)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
 }
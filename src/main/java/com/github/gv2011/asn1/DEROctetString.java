@@ -76,6 +76,6 @@ public class DEROctetString
         final DEROutputStream derOut,
         final Bytes          bytes)
     {
-        derOut.writeEncoded(BERTags.OCTET_STRING, bytes);
+        derOut.writePrimitive(new DEROctetString(bytes));
     }
 }
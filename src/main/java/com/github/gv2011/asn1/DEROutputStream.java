@@ -43,13 +43,19 @@ public class DEROutputStream
         super(os);
     }
 
+    DEROutputStream(
+        final EncodingBuffer buffer)
+    {
+        super(buffer);
+    }
+
     @Override
     public void writeObject(
         final ASN1Encodable obj)
     {
         if (obj != null)
         {
-            obj.toASN1Primitive().toDERObject().encode(this);
+            writePrimitive(obj.toASN1Primitive().toDERObject());
         }
         else
         {
@@ -29,8 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.util.Enumeration;
-
 public class DERSequence
     extends ASN1Sequence
 {
@@ -79,11 +77,9 @@ public class DERSequence
         {
             int length = 0;
 
-            for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+            for (int i = 0, size = size(); i != size; i++)
             {
-                final Object    obj = e.nextElement();
-
-                length += ((ASN1Encodable)obj).toASN1Primitive().toDERObject().encodedLength();
+                length += getObjectAt(i).toASN1Primitive().toDERObject().encodedLength();
             }
 
             bodyLength = length;
@@ -118,11 +114,9 @@ public class DERSequence
         out.write(BERTags.SEQUENCE | BERTags.CONSTRUCTED);
         out.writeLength(length);
 
-        for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+        for (int i = 0, size = size(); i != size; i++)
         {
-            final Object    obj = e.nextElement();
-
-            dOut.writeObject((ASN1Encodable)obj);
+            dOut.writeObject(getObjectAt(i));
         }
     }
 }
@@ -40,6 +40,7 @@ public class DERSequenceGenerator
     extends DERGenerator
 {
     private final ByteArrayOutputStream _bOut = new ByteArrayOutputStream();
+    private final DEROutputStream       _dOut = new DEROutputStream(_bOut);
 
     /**
      * Use the passed in stream as the target for the generator.
@@ -82,7 +83,7 @@ public class DERSequenceGenerator
         final ASN1Encodable object)
         throws IOException
     {
-        object.toASN1Primitive().encode(new DEROutputStream(_bOut));
+        _dOut.writePrimitive(object.toASN1Primitive());
     }
 
     /**
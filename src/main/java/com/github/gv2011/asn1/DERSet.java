@@ -29,7 +29,7 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.util.Enumeration;
+import com.github.gv2011.util.bytes.Bytes;
 
 /**
  * A DER encoded set object
@@ -87,13 +87,22 @@ public class DERSet
     {
         if (bodyLength < 0)
         {
+            final Bytes[] encodings = getSortedEncodings();
             int length = 0;
 
-            for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+            if (encodings != null)
             {
-                final Object    obj = e.nextElement();
-
-                length += ((ASN1Encodable)obj).toASN1Primitive().toDERObject().encodedLength();
+                for (final Bytes encoding : encodings)
+                {
+                    length += encoding.size();
+                }
+            }
+            else
+            {
+                for (int i = 0, size = size(); i != size; i++)
+                {
+                    length += getObjectAt(i).toASN1Primitive().toDERObject().encodedLength();
+                }
             }
 
             bodyLength = length;
@@ -125,14 +134,25 @@ public class DERSet
         final ASN1OutputStream        dOut = out.getDERSubStream();
         final int                     length = getBodyLength();
 
+        final Bytes[]                 encodings = getSortedEncodings();
+
         out.write(BERTags.SET | BERTags.CONSTRUCTED);
         out.writeLength(length);
 
-        for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+        if (encodings != null)
         {
-            final Object    obj = e.nextElement();
-
-            dOut.writeObject((ASN1Encodable)obj);
+            // elements were encoded while sorting
+            for (final Bytes encoding : encodings)
+            {
+                out.write(encoding);
+            }
+        }
+        else
+        {
+            for (int i = 0, size = size(); i != size; i++)
+            {
+                dOut.writeObject(getObjectAt(i));
+            }
         }
     }
 }
@@ -0,0 +1,472 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A stream generator for DER SETs.
+ * <p>
+ * DER requires the elements of a SET OF to be sorted by their encodings, so nothing can be
+ * written before the last element has been added. Elements are encoded as they are added
+ * and kept in memory up to a threshold. Beyond it, the elements held are sorted and spilled
+ * to a temporary file, and {@link #close()} merges the sorted runs into the output. No more
+ * than {@value #MERGE_FAN_IN} runs are read at once, larger numbers of runs are first merged
+ * in groups into longer runs. Temporary files are removed by close().
+ * </p>
+ */
+public class DERSetGenerator
+    extends DERGenerator
+{
+    /**
+     * Default number of octets of encodings held in memory before spilling to a temporary file.
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 16 * 1024 * 1024;
+
+    // estimated memory taken by each element besides its encoding
+    private static final int ENTRY_OVERHEAD = 32;
+
+    // the largest number of runs merged in one pass, so that many runs do not exhaust file handles
+    private static final int MERGE_FAN_IN = 64;
+
+    private static final Comparator<byte[]> DER_ORDER = DERSetGenerator::compareEncodings;
+
+    private final long memoryThreshold;
+
+    private final List<byte[]> elements = new ArrayList<>();
+    private final List<Path>   runs = new ArrayList<>();
+
+    private long memoryUsed;
+    private long bodyLength;
+
+    /**
+     * Use the passed in stream as the target for the generator.
+     *
+     * @param out target stream
+     */
+    public DERSetGenerator(
+        final OutputStream out)
+    {
+        this(out, DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    /**
+     * Use the passed in stream as the target for the generator, keeping up to memoryThreshold
+     * octets of encodings in memory.
+     *
+     * @param out target stream
+     * @param memoryThreshold the number of octets of encodings to hold before spilling to a temporary file.
+     */
+    public DERSetGenerator(
+        final OutputStream out,
+        final long         memoryThreshold)
+    {
+        super(out);
+
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Use the passed in stream as the target for the generator, writing out the header tag
+     * for a tagged constructed SET (possibly implicit).
+     *
+     * @param out target stream
+     * @param tagNo the tag number to introduce
+     * @param isExplicit true if this is an explicitly tagged object, false otherwise.
+     */
+    public DERSetGenerator(
+        final OutputStream out,
+        final int          tagNo,
+        final boolean      isExplicit)
+    {
+        this(out, tagNo, isExplicit, DEFAULT_MEMORY_THRESHOLD);
+    }
+
+    /**
+     * Use the passed in stream as the target for the generator, writing out the header tag
+     * for a tagged constructed SET (possibly implicit) and keeping up to memoryThreshold
+     * octets of encodings in memory.
+     *
+     * @param out target stream
+     * @param tagNo the tag number to introduce
+     * @param isExplicit true if this is an explicitly tagged object, false otherwise.
+     * @param memoryThreshold the number of octets of encodings to hold before spilling to a temporary file.
+     */
+    public DERSetGenerator(
+        final OutputStream out,
+        final int          tagNo,
+        final boolean      isExplicit,
+        final long         memoryThreshold)
+    {
+        super(out, tagNo, isExplicit);
+
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    /**
+     * Add an object to the SET being generated.
+     *
+     * @param object an ASN.1 encodable object to add.
+     * @throws IOException if a temporary file cannot be written.
+     */
+    public void addObject(
+        final ASN1Encodable object)
+        throws IOException
+    {
+        final byte[] encoding = object.toASN1Primitive().getEncoded(ASN1Encoding.DER).toByteArray();
+
+        elements.add(encoding);
+        bodyLength += encoding.length;
+        memoryUsed += encoding.length + ENTRY_OVERHEAD;
+
+        if (memoryUsed >= memoryThreshold)
+        {
+            spill();
+        }
+    }
+
+    /**
+     * Raw output cannot be put into DER order, so this is not supported.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public OutputStream getRawOutputStream()
+    {
+        throw new UnsupportedOperationException("raw output cannot be sorted, use addObject()");
+    }
+
+    /**
+     * Close of the generator, writing out the SET with its elements in DER order.
+     *
+     * @throws IOException if the target stream or a temporary file cannot be written or read.
+     */
+    public void close()
+        throws IOException
+    {
+        final List<RunReader> readers = new ArrayList<>();
+
+        try
+        {
+            final byte[][] inMemory = sortedElements();
+
+            elements.clear();
+            memoryUsed = 0;
+
+            // leave room for the elements in memory in the final merge
+            combineRuns(MERGE_FAN_IN - 1);
+
+            writeDERHeader(BERTags.CONSTRUCTED | BERTags.SET, bodyLength);
+
+            if (runs.isEmpty())
+            {
+                for (final byte[] encoding : inMemory)
+                {
+                    _out.write(encoding);
+                }
+            }
+            else
+            {
+                openRuns(runs, readers);
+                readers.add(new RunReader(inMemory, readers.size()));
+
+                merge(readers, null);
+            }
+        }
+        finally
+        {
+            for (final RunReader reader : readers)
+            {
+                reader.close();
+            }
+            for (final Path run : runs)
+            {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+        }
+    }
+
+    private byte[][] sortedElements()
+    {
+        final byte[][] sorted = elements.toArray(new byte[elements.size()][]);
+
+        Arrays.parallelSort(sorted, DER_ORDER);
+
+        return sorted;
+    }
+
+    private void spill()
+        throws IOException
+    {
+        final byte[][] sorted = sortedElements();
+        final Path run = Files.createTempFile("asn1set", ".run");
+
+        try (DataOutputStream out = newRunStream(run))
+        {
+            for (final byte[] encoding : sorted)
+            {
+                writeRunElement(out, encoding);
+            }
+        }
+        catch (final IOException | RuntimeException e)
+        {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+
+        runs.add(run);
+
+        // the elements are only dropped once the run holding them is complete
+        elements.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Merge groups of consecutive runs into longer runs until no more than maxRuns are left.
+     * Runs keep their relative order, so equal encodings stay in the order they were added in.
+     */
+    private void combineRuns(
+        final int maxRuns)
+        throws IOException
+    {
+        while (runs.size() > maxRuns)
+        {
+            final List<Path> combined = new ArrayList<>();
+
+            try
+            {
+                for (int from = 0; from < runs.size(); from += MERGE_FAN_IN)
+                {
+                    final Path run = Files.createTempFile("asn1set", ".run");
+                    final List<RunReader> readers = new ArrayList<>();
+
+                    combined.add(run);
+
+                    try (DataOutputStream out = newRunStream(run))
+                    {
+                        openRuns(runs.subList(from, Math.min(from + MERGE_FAN_IN, runs.size())), readers);
+
+                        merge(readers, out);
+                    }
+                    finally
+                    {
+                        for (final RunReader reader : readers)
+                        {
+                            reader.close();
+                        }
+                    }
+                }
+            }
+            catch (final IOException | RuntimeException e)
+            {
+                for (final Path run : combined)
+                {
+                    Files.deleteIfExists(run);
+                }
+                throw e;
+            }
+
+            for (final Path run : runs)
+            {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+            runs.addAll(combined);
+        }
+    }
+
+    private static DataOutputStream newRunStream(
+        final Path run)
+        throws IOException
+    {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+    }
+
+    private static void writeRunElement(
+        final DataOutputStream out,
+        final byte[]           encoding)
+        throws IOException
+    {
+        out.writeInt(encoding.length);
+        out.write(encoding);
+    }
+
+    private static void openRuns(
+        final List<Path>      runs,
+        final List<RunReader> readers)
+        throws IOException
+    {
+        for (final Path run : runs)
+        {
+            readers.add(new RunReader(run, readers.size()));
+        }
+    }
+
+    /**
+     * Merge sorted runs, into a run file if run is given and into the target stream otherwise.
+     */
+    private void merge(
+        final List<RunReader>  readers,
+        final DataOutputStream run)
+        throws IOException
+    {
+        // equal encodings are taken from the earlier run, which keeps the order they were added in
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>(readers.size(), (a, b) ->
+        {
+            final int diff = compareEncodings(a.current, b.current);
+
+            return diff != 0 ? diff : a.order - b.order;
+        });
+
+        for (final RunReader reader : readers)
+        {
+            if (reader.advance())
+            {
+                queue.add(reader);
+            }
+        }
+
+        while (!queue.isEmpty())
+        {
+            final RunReader reader = queue.poll();
+
+            if (run != null)
+            {
+                writeRunElement(run, reader.current);
+            }
+            else
+            {
+                _out.write(reader.current);
+            }
+
+            if (reader.advance())
+            {
+                queue.add(reader);
+            }
+        }
+    }
+
+    /**
+     * Compare two encodings as unsigned octet strings, a proper prefix coming first.
+     */
+    private static int compareEncodings(
+        final byte[] a,
+        final byte[] b)
+    {
+        final int len = Math.min(a.length, b.length);
+        for (int i = 0; i != len; ++i)
+        {
+            final int diff = (a[i] & 0xff) - (b[i] & 0xff);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * Cursor over a sorted run, either spilled to a file or held in memory.
+     */
+    private static final class RunReader
+    {
+        final int order;
+
+        private final DataInputStream in;
+        private final byte[][] elements;
+        private int index;
+
+        byte[] current;
+
+        RunReader(final Path run, final int order)
+            throws IOException
+        {
+            this.order = order;
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+            elements = null;
+        }
+
+        RunReader(final byte[][] elements, final int order)
+        {
+            this.order = order;
+            in = null;
+            this.elements = elements;
+        }
+
+        boolean advance()
+            throws IOException
+        {
+            if (in == null)
+            {
+                current = index < elements.length ? elements[index++] : null;
+            }
+            else
+            {
+                final int length;
+                try
+                {
+                    length = in.readInt();
+                }
+                catch (final EOFException e)
+                {
+                    current = null;
+                    return false;
+                }
+                current = new byte[length];
+                in.readFully(current);
+            }
+
+            return current != null;
+        }
+
+        void close()
+            throws IOException
+        {
+            if (in != null)
+            {
+                in.close();
+            }
+        }
+    }
+}
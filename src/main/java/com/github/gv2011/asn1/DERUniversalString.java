@@ -29,8 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.io.ByteArrayOutputStream;
-
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
@@ -110,18 +108,15 @@ public final class DERUniversalString
     @Override
     public String getString()
     {
-        final StringBuffer    buf = new StringBuffer("#");
-        final ByteArrayOutputStream    bOut = new ByteArrayOutputStream();
-        final ASN1OutputStream            aOut = new ASN1OutputStream(bOut);
-
-        aOut.writeObject(this);
+        final StringBuffer buf = new StringBuffer("#");
+        final Bytes        string = getEncoded();
 
-        final byte[]    string = bOut.toByteArray();
-
-        for (int i = 0; i != string.length; i++)
+        for (int i = 0; i != string.size(); i++)
         {
-            buf.append(table[(string[i] >>> 4) & 0xf]);
-            buf.append(table[string[i] & 0xf]);
+            final byte b = string.getByte(i);
+
+            buf.append(table[(b >>> 4) & 0xf]);
+            buf.append(table[b & 0xf]);
         }
 
         return buf.toString();
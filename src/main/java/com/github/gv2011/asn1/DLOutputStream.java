@@ -43,13 +43,19 @@ public class DLOutputStream
         super(os);
     }
 
+    DLOutputStream(
+        final EncodingBuffer buffer)
+    {
+        super(buffer);
+    }
+
     @Override
     public void writeObject(
         final ASN1Encodable obj)
     {
         if (obj != null)
         {
-            obj.toASN1Primitive().toDLObject().encode(this);
+            writePrimitive(obj.toASN1Primitive().toDLObject());
         }
         else
         {
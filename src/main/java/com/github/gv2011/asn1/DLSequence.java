@@ -29,8 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.util.Enumeration;
-
 /**
  * The DLSequence encodes a SEQUENCE using definite length form.
  */
@@ -82,11 +80,9 @@ public class DLSequence
         {
             int length = 0;
 
-            for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+            for (int i = 0, size = size(); i != size; i++)
             {
-                final Object obj = e.nextElement();
-
-                length += ((ASN1Encodable)obj).toASN1Primitive().toDLObject().encodedLength();
+                length += getObjectAt(i).toASN1Primitive().toDLObject().encodedLength();
             }
 
             bodyLength = length;
@@ -121,11 +117,9 @@ public class DLSequence
         out.write(BERTags.SEQUENCE | BERTags.CONSTRUCTED);
         out.writeLength(length);
 
-        for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+        for (int i = 0, size = size(); i != size; i++)
         {
-            final Object obj = e.nextElement();
-
-            dOut.writeObject((ASN1Encodable)obj);
+            dOut.writeObject(getObjectAt(i));
         }
     }
 }
@@ -29,8 +29,6 @@ package com.github.gv2011.asn1;
  */
 
 
-import java.util.Enumeration;
-
 /**
  * The DLSet encodes ASN.1 SET value without element ordering,
  * and always using definite length form.
@@ -124,11 +122,9 @@ public class DLSet
         {
             int length = 0;
 
-            for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+            for (int i = 0, size = size(); i != size; i++)
             {
-                final Object obj = e.nextElement();
-
-                length += ((ASN1Encodable)obj).toASN1Primitive().toDLObject().encodedLength();
+                length += getObjectAt(i).toASN1Primitive().toDLObject().encodedLength();
             }
 
             bodyLength = length;
@@ -163,11 +159,9 @@ public class DLSet
         out.write(BERTags.SET | BERTags.CONSTRUCTED);
         out.writeLength(length);
 
-        for (final Enumeration<?> e = getObjects(); e.hasMoreElements();)
+        for (int i = 0, size = size(); i != size; i++)
         {
-            final Object obj = e.nextElement();
-
-            dOut.writeObject((ASN1Encodable)obj);
+            dOut.writeObject(getObjectAt(i));
         }
     }
 }
@@ -122,12 +122,39 @@ class DefiniteLengthInputStream
         return numRead;
     }
 
+    @Override
+    public long skip(final long n)
+        throws IOException
+    {
+        if (n <= 0 || _remaining == 0)
+        {
+            return 0;
+        }
+
+        final long skipped = _in.skip(Math.min(n, _remaining));
+
+        if (skipped > 0 && (_remaining -= (int)skipped) == 0)
+        {
+            setParentEofDetect(true);
+        }
+
+        return skipped;
+    }
+
     Bytes toByteArray(){
         if (_remaining == 0)
         {
             return EMPTY_BYTES;
         }
 
+        final Bytes slice = StreamUtil.readSlice(_in, _remaining);
+        if (slice != null)
+        {
+            _remaining = 0;
+            setParentEofDetect(true);
+            return slice;
+        }
+
         final byte[] bytes = new byte[_remaining];
         if ((_remaining -= Streams.readFully(_in, bytes)) != 0)
         {
@@ -136,4 +163,26 @@ class DefiniteLengthInputStream
         setParentEofDetect(true);
         return newBytes(bytes);
     }
+
+    /**
+     * Take the next length bytes of this stream as a sub list of the underlying data.
+     *
+     * @param length the number of bytes to take.
+     * @return the slice, or null if the underlying stream cannot provide one.
+     */
+    Bytes readSlice(final int length)
+    {
+        if (length > _remaining)
+        {
+            return null;
+        }
+
+        final Bytes slice = StreamUtil.readSlice(_in, length);
+        if (slice != null && (_remaining -= length) == 0)
+        {
+            setParentEofDetect(true);
+        }
+
+        return slice;
+    }
 }
@@ -0,0 +1,267 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.ex.Exceptions.run;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.gv2011.util.ann.Nullable;
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Target of an {@link ASN1OutputStream} and the sub-streams derived from it.
+ * <p>
+ * Works in one of three ways:
+ * <ul>
+ * <li>collecting the encoding in a block buffer which is passed on to the underlying stream
+ * whenever it fills up and when the outermost object is complete. Writes larger than the
+ * block buffer go straight to the underlying stream.</li>
+ * <li>writing directly into a ByteBuffer.</li>
+ * <li>producing a list of buffer segments. Headers and small values are collected in blocks,
+ * while the contents of large values are added as read-only views of their own storage.</li>
+ * </ul>
+ * </p>
+ */
+final class EncodingBuffer
+    extends OutputStream
+{
+    private static final int BLOCK_SIZE = 8192;
+
+    // values at least this long are referenced rather than copied when producing segments
+    private static final int SEGMENT_THRESHOLD = 4096;
+
+    private final @Nullable OutputStream os;
+    private final @Nullable ByteBuffer target;
+    private final @Nullable List<ByteBuffer> segments;
+    private @Nullable byte[] block;
+
+    private int pos;
+    // start of the segment not yet added to segments
+    private int start;
+    // nesting of objects being written, the block is passed on when it drops to zero
+    private int depth;
+    // size of the large value being written when producing segments, -1 otherwise
+    private int capture = -1;
+
+    EncodingBuffer(
+        final OutputStream os)
+    {
+        this(os, BLOCK_SIZE);
+    }
+
+    /**
+     * @param sizeHint the expected size of the output, a smaller block is used if it is below the block size.
+     */
+    EncodingBuffer(
+        final OutputStream os,
+        final int          sizeHint)
+    {
+        this.os = os;
+        target = null;
+        segments = null;
+        block = new byte[Math.max(1, Math.min(BLOCK_SIZE, sizeHint))];
+    }
+
+    EncodingBuffer(
+        final ByteBuffer target)
+    {
+        os = null;
+        this.target = target;
+        segments = null;
+        block = null;
+    }
+
+    EncodingBuffer(
+        final List<ByteBuffer> segments)
+    {
+        os = null;
+        target = null;
+        this.segments = segments;
+        block = new byte[BLOCK_SIZE];
+    }
+
+    @Override
+    public void write(final int b)
+    {
+        if (target != null)
+        {
+            target.put((byte)b);
+        }
+        else
+        {
+            if (pos == block.length)
+            {
+                spill();
+            }
+            block[pos++] = (byte)b;
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len)
+    {
+        final boolean whole = len == capture;
+
+        capture = -1;
+
+        if (target != null)
+        {
+            target.put(b, off, len);
+        }
+        else if (whole)
+        {
+            // the complete contents of a large value in one piece, taken to be its storage
+            drain();
+            segments.add(ByteBuffer.wrap(b, off, len).asReadOnlyBuffer());
+        }
+        else if (len <= block.length - pos)
+        {
+            System.arraycopy(b, off, block, pos, len);
+            pos += len;
+        }
+        else
+        {
+            spill();
+            if (len < block.length)
+            {
+                System.arraycopy(b, off, block, 0, len);
+                pos = len;
+            }
+            else if (segments != null)
+            {
+                segments.add(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+            }
+            else
+            {
+                run(()->os.write(b, off, len));
+            }
+        }
+    }
+
+    void write(final Bytes bytes)
+    {
+        if (segments != null && bytes.size() >= SEGMENT_THRESHOLD)
+        {
+            capture = bytes.size();
+            try
+            {
+                bytes.write(this);
+            }
+            finally
+            {
+                capture = -1;
+            }
+        }
+        else
+        {
+            bytes.write(this);
+        }
+    }
+
+    /**
+     * Mark the start of an object.
+     */
+    void enter()
+    {
+        depth++;
+    }
+
+    /**
+     * Mark the end of an object, passing the buffered encoding on if it was the outermost one.
+     */
+    void exit()
+    {
+        if (--depth == 0)
+        {
+            drain();
+        }
+    }
+
+    /**
+     * Pass the buffered octets on to the underlying stream or the segments.
+     */
+    void drain()
+    {
+        if (segments != null)
+        {
+            if (pos != start)
+            {
+                segments.add(ByteBuffer.wrap(block, start, pos - start));
+                start = pos;
+            }
+        }
+        else if (pos != 0)
+        {
+            final int len = pos;
+
+            pos = 0;
+            run(()->os.write(block, 0, len));
+        }
+    }
+
+    /**
+     * Make the whole block available again.
+     */
+    private void spill()
+    {
+        drain();
+        if (segments != null)
+        {
+            // the old block is referenced by the segments
+            block = new byte[BLOCK_SIZE];
+            pos = 0;
+            start = 0;
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        if (os != null)
+        {
+            drain();
+            run(os::flush);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (os != null)
+        {
+            drain();
+            run(os::close);
+        }
+    }
+}
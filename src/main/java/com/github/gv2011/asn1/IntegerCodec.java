@@ -0,0 +1,154 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Two's complement contents of INTEGER and ENUMERATED values that fit in a long.
+ */
+final class IntegerCodec
+{
+    // smallest and largest value of the shared caches of small values
+    static final int CACHE_MIN = -128;
+    static final int CACHE_MAX = 1023;
+
+    private IntegerCodec()
+    {
+    }
+
+    /**
+     * Return the length of the minimal two's complement encoding of value.
+     */
+    static int length(
+        final long value)
+    {
+        final int bits = 65 - Long.numberOfLeadingZeros(value < 0 ? ~value : value);
+
+        return (bits + 7) / 8;
+    }
+
+    /**
+     * Return octet i of the encoding of value in length octets.
+     */
+    static byte byteAt(
+        final long value,
+        final int  length,
+        final int  i)
+    {
+        return (byte)(value >> (8 * (length - 1 - i)));
+    }
+
+    static Bytes toBytes(
+        final long value)
+    {
+        final int length = length(value);
+        final byte[] buf = new byte[length];
+
+        for (int i = 0; i != length; i++)
+        {
+            buf[i] = byteAt(value, length, i);
+        }
+
+        return newBytes(buf);
+    }
+
+    /**
+     * Return true if contents holds a value in the range of a long, allowing
+     * redundant leading octets.
+     */
+    static boolean fitsLong(
+        final Bytes contents)
+    {
+        final int size = contents.size();
+
+        if (size == 0)
+        {
+            return false;
+        }
+
+        // every octet in front of the last eight must repeat the sign
+        final int sign = contents.getByte(Math.max(0, size - 8)) < 0 ? -1 : 0;
+        for (int i = 0; i < size - 8; i++)
+        {
+            if (contents.getByte(i) != sign)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Return the value of contents, which must satisfy {@link #fitsLong(Bytes)}.
+     */
+    static long toLong(
+        final Bytes contents)
+    {
+        final int size = contents.size();
+        long value = contents.getByte(0);
+
+        for (int i = 1; i != size; i++)
+        {
+            value = (value << 8) | (contents.getByte(i) & 0xff);
+        }
+
+        return value;
+    }
+
+    /**
+     * Return true if contents has no redundant leading octet.
+     */
+    static boolean isMinimal(
+        final Bytes contents)
+    {
+        if (contents.size() < 2)
+        {
+            return true;
+        }
+
+        final byte first = contents.getByte(0);
+        final byte second = contents.getByte(1);
+
+        return !(first == 0 && second >= 0 || first == -1 && second < 0);
+    }
+
+    /**
+     * Return true if value is held in the shared caches of small values.
+     */
+    static boolean isCached(
+        final long value)
+    {
+        return CACHE_MIN <= value && value <= CACHE_MAX;
+    }
+}
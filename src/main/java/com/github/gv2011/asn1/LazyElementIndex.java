@@ -0,0 +1,123 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Random access to the elements of an encoded SEQUENCE or SET body.
+ * <p>
+ * The index is built with one structural scan recording the offset of every child,
+ * no child is decoded by it. Children are then decoded individually on first access
+ * and kept. Decoded children are published with a CAS, so an index can be read
+ * by several threads without locking; all of them see the same child instances.
+ * </p>
+ */
+class LazyElementIndex
+{
+    private final Bytes                               encoded;
+    // child i is encoded in offsets[i] .. offsets[i + 1]
+    private final int[]                               offsets;
+    private final AtomicReferenceArray<ASN1Encodable> elements;
+
+    LazyElementIndex(
+        final Bytes encoded)
+    {
+        this.encoded = encoded;
+
+        final ASN1Cursor cursor = new ASN1Cursor(encoded);
+        int[] offs = new int[8];
+        int count = 0;
+
+        while (cursor.next())
+        {
+            if (count + 1 == offs.length)
+            {
+                offs = Arrays.copyOf(offs, offs.length * 2);
+            }
+            offs[count++] = cursor.headerOffset();
+        }
+        offs[count] = encoded.size();
+
+        offsets = Arrays.copyOf(offs, count + 1);
+        elements = new AtomicReferenceArray<>(count);
+    }
+
+    int size()
+    {
+        return elements.length();
+    }
+
+    ASN1Encodable get(
+        final int index)
+    {
+        final ASN1Encodable element = elements.get(index);
+
+        if (element != null)
+        {
+            return element;
+        }
+
+        elements.compareAndSet(index, null,
+            new ASN1InputStream(encoded.subList(offsets[index], offsets[index + 1]), true, true).readObject());
+
+        return elements.get(index);
+    }
+
+    Enumeration<ASN1Encodable> elements()
+    {
+        return new Enumeration<ASN1Encodable>()
+        {
+            private int index;
+
+            @Override
+            public boolean hasMoreElements()
+            {
+                return index < elements.length();
+            }
+
+            @Override
+            public ASN1Encodable nextElement()
+            {
+                if (index == elements.length())
+                {
+                    throw new NoSuchElementException();
+                }
+
+                return get(index++);
+            }
+        };
+    }
+}
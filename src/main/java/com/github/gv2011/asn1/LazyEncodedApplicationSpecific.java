@@ -29,41 +29,42 @@ package com.github.gv2011.asn1;
  */
 
 
-
-import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.github.gv2011.util.bytes.Bytes;
 
-class LazyConstructionEnumeration
-    implements Enumeration<ASN1Encodable>
+/**
+ * An application specific object read in lazy mode. The contents are decoded on
+ * the first call to {@link #getObject()}, lazily themselves, and then kept.
+ */
+class LazyEncodedApplicationSpecific
+    extends DERApplicationSpecific
 {
-    private final ASN1InputStream aIn;
-    private ASN1Primitive          nextObj;
+    private static final AtomicReferenceFieldUpdater<LazyEncodedApplicationSpecific, ASN1Primitive> OBJECT =
+        AtomicReferenceFieldUpdater.newUpdater(LazyEncodedApplicationSpecific.class, ASN1Primitive.class, "object");
 
-    public LazyConstructionEnumeration(final Bytes encoded)
-    {
-        aIn = new ASN1InputStream(encoded, true);
-        nextObj = readObject();
-    }
+    private volatile ASN1Primitive object;
 
-    @Override
-    public boolean hasMoreElements()
+    LazyEncodedApplicationSpecific(
+        final boolean isConstructed,
+        final int     tag,
+        final Bytes   octets)
     {
-        return nextObj != null;
+        super(isConstructed, tag, octets);
     }
 
     @Override
-    public ASN1Primitive nextElement()
+    public ASN1Primitive getObject()
     {
-        final ASN1Primitive o = nextObj;
+        final ASN1Primitive current = object;
 
-        nextObj = readObject();
+        if (current != null)
+        {
+            return current;
+        }
 
-        return o;
-    }
+        OBJECT.compareAndSet(this, null, new ASN1InputStream(getContents(), true, true).readObject());
 
-    private ASN1Primitive readObject()
-    {
-            return aIn.readObject();
+        return object;
     }
 }
@@ -0,0 +1,109 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * An encoded object which is only decoded on first access. Used for the contents
+ * of explicitly tagged objects read in lazy mode.
+ */
+class LazyEncodedObject
+    implements ASN1Encodable
+{
+    private static final AtomicReferenceFieldUpdater<LazyEncodedObject, ASN1Primitive> OBJECT =
+        AtomicReferenceFieldUpdater.newUpdater(LazyEncodedObject.class, ASN1Primitive.class, "object");
+
+    private final Bytes             encoded;
+    private volatile ASN1Primitive  object;
+
+    LazyEncodedObject(
+        final Bytes encoded){
+        this.encoded = encoded;
+    }
+
+    /**
+     * Build a tagged object from the contents of a constructed tagged encoding, without
+     * decoding them. As with eager parsing, the tagging is explicit if the contents are a
+     * single object, otherwise the contents are taken as an implicitly tagged sequence.
+     */
+    static ASN1TaggedObject createTaggedObject(
+        final int   tagNo,
+        final Bytes contents)
+    {
+        final ASN1Cursor cursor = new ASN1Cursor(contents);
+
+        if (cursor.next())
+        {
+            cursor.skip();
+            if (!cursor.next())
+            {
+                return new DERTaggedObject(true, tagNo, new LazyEncodedObject(contents));
+            }
+        }
+
+        return new DERTaggedObject(false, tagNo, new LazyEncodedSequence(contents));
+    }
+
+    @Override
+    public ASN1Primitive toASN1Primitive()
+    {
+        final ASN1Primitive current = object;
+
+        if (current != null)
+        {
+            return current;
+        }
+
+        OBJECT.compareAndSet(this, null, new ASN1InputStream(encoded, true, true).readObject());
+
+        return object;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return toASN1Primitive().hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+        return o == this || toASN1Primitive().equals(o);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toASN1Primitive().toString();
+    }
+}
@@ -29,114 +29,99 @@ package com.github.gv2011.asn1;
  */
 
 
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import com.github.gv2011.util.bytes.Bytes;
 
 /**
  * Note: this class is for processing DER/DL encoded sequences only.
+ * <p>
+ * The encoding is immutable and the element index is published with a CAS, so
+ * instances can be shared between threads without locking.
+ * </p>
  */
 class LazyEncodedSequence
     extends ASN1Sequence
 {
-    private Bytes encoded;
+    private static final AtomicReferenceFieldUpdater<LazyEncodedSequence, LazyElementIndex> INDEX =
+        AtomicReferenceFieldUpdater.newUpdater(LazyEncodedSequence.class, LazyElementIndex.class, "index");
+
+    private final Bytes encoded;
+    private volatile LazyElementIndex index;
 
     LazyEncodedSequence(
         final Bytes encoded){
         this.encoded = encoded;
     }
 
-    private void parse()
+    private LazyElementIndex index()
     {
-        final Enumeration<ASN1Encodable> en = new LazyConstructionEnumeration(encoded);
+        final LazyElementIndex current = index;
 
-        while (en.hasMoreElements())
+        if (current != null)
         {
-            seq.addElement(en.nextElement());
+            return current;
         }
 
-        encoded = null;
+        INDEX.compareAndSet(this, null, new LazyElementIndex(encoded));
+
+        return index;
     }
 
     @Override
-    public synchronized ASN1Encodable getObjectAt(final int index)
+    public ASN1Encodable getObjectAt(final int index)
     {
-        if (encoded != null)
-        {
-            parse();
-        }
-
-        return super.getObjectAt(index);
+        return index().get(index);
     }
 
     @Override
-    public synchronized Enumeration<ASN1Encodable> getObjects()
+    public Enumeration<ASN1Encodable> getObjects()
     {
-        if (encoded == null)
-        {
-            return super.getObjects();
-        }
-
-        return new LazyConstructionEnumeration(encoded);
+        return index().elements();
     }
 
     @Override
-    public synchronized int size()
+    public int size()
     {
-        if (encoded != null)
-        {
-            parse();
-        }
-
-        return super.size();
+        return index().size();
     }
 
     @Override
     ASN1Primitive toDERObject()
     {
-        if (encoded != null)
-        {
-            parse();
-        }
-
-        return super.toDERObject();
+        return new DERSequence(toArray());
     }
 
     @Override
     ASN1Primitive toDLObject()
     {
-        if (encoded != null)
-        {
-            parse();
-        }
+        return new DLSequence(toArray());
+    }
 
-        return super.toDLObject();
+    @Override
+    Bytes getBodyEncoding()
+    {
+        return encoded;
     }
 
     @Override
     int encodedLength()
     {
-        if (encoded != null)
-        {
-            return StreamUtil.typicalLength(encoded);
-        }
-        else
-        {
-            return super.toDLObject().encodedLength();
-        }
+        return StreamUtil.typicalLength(encoded);
     }
 
     @Override
     void encode(
         final ASN1OutputStream out)
     {
-        if (encoded != null)
-        {
-            out.writeEncoded(BERTags.SEQUENCE | BERTags.CONSTRUCTED, encoded);
-        }
-        else
-        {
-            super.toDLObject().encode(out);
-        }
+        out.writeEncoded(BERTags.SEQUENCE | BERTags.CONSTRUCTED, encoded);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.asList(toArray()).toString();
     }
 }
@@ -0,0 +1,122 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Note: this class is for processing DER/DL encoded sets only.
+ * <p>
+ * The encoding is immutable and the element index is published with a CAS, so
+ * instances can be shared between threads without locking.
+ * </p>
+ */
+class LazyEncodedSet
+    extends ASN1Set
+{
+    private static final AtomicReferenceFieldUpdater<LazyEncodedSet, LazyElementIndex> INDEX =
+        AtomicReferenceFieldUpdater.newUpdater(LazyEncodedSet.class, LazyElementIndex.class, "index");
+
+    private final Bytes encoded;
+    private volatile LazyElementIndex index;
+
+    LazyEncodedSet(
+        final Bytes encoded){
+        this.encoded = encoded;
+    }
+
+    private LazyElementIndex index()
+    {
+        final LazyElementIndex current = index;
+
+        if (current != null)
+        {
+            return current;
+        }
+
+        INDEX.compareAndSet(this, null, new LazyElementIndex(encoded));
+
+        return index;
+    }
+
+    @Override
+    public ASN1Encodable getObjectAt(final int index)
+    {
+        return index().get(index);
+    }
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Enumeration<Object> getObjects()
+    {
+        return (Enumeration)index().elements();
+    }
+
+    @Override
+    public int size()
+    {
+        return index().size();
+    }
+
+    @Override
+    ASN1Primitive toDLObject()
+    {
+        return new DLSet(toArray());
+    }
+
+    @Override
+    Bytes getBodyEncoding()
+    {
+        return encoded;
+    }
+
+    @Override
+    int encodedLength()
+    {
+        return StreamUtil.typicalLength(encoded);
+    }
+
+    @Override
+    void encode(
+        final ASN1OutputStream out)
+    {
+        out.writeEncoded(BERTags.SET | BERTags.CONSTRUCTED, encoded);
+    }
+
+    @Override
+    public String toString()
+    {
+        return Arrays.asList(toArray()).toString();
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * The intern pool of object identifiers, keyed by their encoded bodies.
+ * <p>
+ * Well-known identifiers are found in a table which is built once and never changes.
+ * All others go to a bounded, direct-mapped cache: each body hashes to one slot and a
+ * new entry evicts whatever occupied its slot, so hostile input cannot grow the pool.
+ * Bodies are hashed and compared octet by octet here rather than through
+ * {@link Bytes#hashCode()} and {@link Bytes#equals(Object)}, so neither lookup locks or allocates.
+ * </p>
+ */
+final class OidPool
+{
+    private static final String[] WELL_KNOWN = {
+        // X.500 attribute types
+        "2.5.4.3", "2.5.4.4", "2.5.4.5", "2.5.4.6", "2.5.4.7", "2.5.4.8", "2.5.4.9", "2.5.4.10",
+        "2.5.4.11", "2.5.4.12", "2.5.4.13", "2.5.4.15", "2.5.4.17", "2.5.4.42", "2.5.4.43",
+        "2.5.4.44", "2.5.4.46", "2.5.4.65", "2.5.4.97",
+        "0.9.2342.19200300.100.1.1", "0.9.2342.19200300.100.1.25",
+        // X.509 certificate extensions
+        "2.5.29.9", "2.5.29.14", "2.5.29.15", "2.5.29.16", "2.5.29.17", "2.5.29.18", "2.5.29.19",
+        "2.5.29.20", "2.5.29.21", "2.5.29.23", "2.5.29.24", "2.5.29.27", "2.5.29.28", "2.5.29.29",
+        "2.5.29.30", "2.5.29.31", "2.5.29.32", "2.5.29.32.0", "2.5.29.33", "2.5.29.35",
+        "2.5.29.36", "2.5.29.37", "2.5.29.37.0", "2.5.29.46", "2.5.29.54",
+        // PKIX
+        "1.3.6.1.5.5.7.1.1", "1.3.6.1.5.5.7.1.3", "1.3.6.1.5.5.7.1.11", "1.3.6.1.5.5.7.1.24",
+        "1.3.6.1.5.5.7.2.1", "1.3.6.1.5.5.7.2.2",
+        "1.3.6.1.5.5.7.3.1", "1.3.6.1.5.5.7.3.2", "1.3.6.1.5.5.7.3.3", "1.3.6.1.5.5.7.3.4",
+        "1.3.6.1.5.5.7.3.8", "1.3.6.1.5.5.7.3.9",
+        "1.3.6.1.5.5.7.48.1", "1.3.6.1.5.5.7.48.1.1", "1.3.6.1.5.5.7.48.1.2",
+        "1.3.6.1.5.5.7.48.1.5", "1.3.6.1.5.5.7.48.2",
+        "1.3.6.1.4.1.11129.2.4.2", "1.3.6.1.4.1.311.20.2", "1.3.6.1.4.1.311.21.7",
+        "1.3.6.1.4.1.311.21.10",
+        "2.23.140.1.1", "2.23.140.1.2.1", "2.23.140.1.2.2", "2.23.140.1.2.3",
+        // PKCS#1 and RSA signatures
+        "1.2.840.113549.1.1.1", "1.2.840.113549.1.1.4", "1.2.840.113549.1.1.5",
+        "1.2.840.113549.1.1.7", "1.2.840.113549.1.1.8", "1.2.840.113549.1.1.10",
+        "1.2.840.113549.1.1.11", "1.2.840.113549.1.1.12", "1.2.840.113549.1.1.13",
+        "1.2.840.113549.1.1.14",
+        // PKCS#7 / CMS content types
+        "1.2.840.113549.1.7.1", "1.2.840.113549.1.7.2", "1.2.840.113549.1.7.3",
+        "1.2.840.113549.1.7.5", "1.2.840.113549.1.7.6", "1.2.840.113549.1.9.16.1.4",
+        // PKCS#9 attributes
+        "1.2.840.113549.1.9.1", "1.2.840.113549.1.9.3", "1.2.840.113549.1.9.4",
+        "1.2.840.113549.1.9.5", "1.2.840.113549.1.9.6", "1.2.840.113549.1.9.7",
+        "1.2.840.113549.1.9.14", "1.2.840.113549.1.9.15", "1.2.840.113549.1.9.16.2.12",
+        "1.2.840.113549.1.9.16.2.14", "1.2.840.113549.1.9.16.2.47",
+        // PKCS#12 and PBE
+        "1.2.840.113549.1.5.12", "1.2.840.113549.1.5.13", "1.2.840.113549.1.12.10.1.2",
+        "1.2.840.113549.1.12.10.1.3", "1.2.840.113549.2.7", "1.2.840.113549.2.9",
+        "1.2.840.113549.2.10", "1.2.840.113549.2.11",
+        // EC keys and ECDSA
+        "1.2.840.10045.2.1", "1.2.840.10045.3.1.7", "1.3.132.0.34", "1.3.132.0.35",
+        "1.2.840.10045.4.1", "1.2.840.10045.4.3.2", "1.2.840.10045.4.3.3", "1.2.840.10045.4.3.4",
+        "1.3.101.110", "1.3.101.111", "1.3.101.112", "1.3.101.113",
+        // DSA
+        "1.2.840.10040.4.1", "1.2.840.10040.4.3", "2.16.840.1.101.3.4.3.2",
+        // digests
+        "1.3.14.3.2.26", "2.16.840.1.101.3.4.2.1", "2.16.840.1.101.3.4.2.2",
+        "2.16.840.1.101.3.4.2.3", "2.16.840.1.101.3.4.2.4",
+        "2.16.840.1.101.3.4.2.8", "2.16.840.1.101.3.4.2.9", "2.16.840.1.101.3.4.2.10",
+        // AES
+        "2.16.840.1.101.3.4.1.2", "2.16.840.1.101.3.4.1.5", "2.16.840.1.101.3.4.1.6",
+        "2.16.840.1.101.3.4.1.22", "2.16.840.1.101.3.4.1.25", "2.16.840.1.101.3.4.1.42",
+        "2.16.840.1.101.3.4.1.45", "2.16.840.1.101.3.4.1.46",
+        // Netscape
+        "2.16.840.1.113730.1.1", "2.16.840.1.113730.1.13",
+    };
+
+    private static final int CACHE_SIZE = 1024;
+
+    // open addressing table, never written after class initialisation
+    private static final ASN1ObjectIdentifier[] known;
+
+    private static final AtomicReferenceArray<ASN1ObjectIdentifier> cache =
+        new AtomicReferenceArray<>(CACHE_SIZE);
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    static
+    {
+        final ASN1ObjectIdentifier[] table = new ASN1ObjectIdentifier[Integer.highestOneBit(WELL_KNOWN.length) * 4];
+
+        for (final String id : WELL_KNOWN)
+        {
+            final ASN1ObjectIdentifier oid = new ASN1ObjectIdentifier(id);
+            int i = slot(oid.getBody(), table.length);
+
+            while (table[i] != null)
+            {
+                i = (i + 1) & (table.length - 1);
+            }
+
+            table[i] = oid;
+        }
+
+        known = table;
+    }
+
+    private OidPool()
+    {
+    }
+
+    /**
+     * Find the pooled identifier with the passed in body.
+     *
+     * @param body the contents octets of an OBJECT IDENTIFIER.
+     * @return the pooled identifier, or null if there is none.
+     */
+    static ASN1ObjectIdentifier get(
+        final Bytes body)
+    {
+        final int hash = hash(body);
+
+        for (int i = slot(hash, known.length); known[i] != null; i = (i + 1) & (known.length - 1))
+        {
+            if (sameOctets(known[i].getBody(), body))
+            {
+                hits.increment();
+                return known[i];
+            }
+        }
+
+        final ASN1ObjectIdentifier cached = cache.get(slot(hash, CACHE_SIZE));
+        if (cached != null && sameOctets(cached.getBody(), body))
+        {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Add an identifier to the cache, evicting the one that occupies its slot.
+     *
+     * @param oid an identifier that was not found by {@link #get(Bytes)}.
+     */
+    static void put(
+        final ASN1ObjectIdentifier oid)
+    {
+        final ASN1ObjectIdentifier previous = cache.getAndSet(slot(oid.getBody(), CACHE_SIZE), oid);
+
+        if (previous != null && !previous.equals(oid))
+        {
+            evictions.increment();
+        }
+    }
+
+    static long getHits()
+    {
+        return hits.sum();
+    }
+
+    static long getMisses()
+    {
+        return misses.sum();
+    }
+
+    static long getEvictions()
+    {
+        return evictions.sum();
+    }
+
+    private static int slot(
+        final Bytes body,
+        final int   size)
+    {
+        return slot(hash(body), size);
+    }
+
+    private static int hash(
+        final Bytes body)
+    {
+        int hash = 1;
+
+        for (int i = 0, n = body.size(); i != n; i++)
+        {
+            hash = 31 * hash + body.getByte(i);
+        }
+
+        return hash;
+    }
+
+    private static boolean sameOctets(
+        final Bytes a,
+        final Bytes b)
+    {
+        final int n = a.size();
+
+        if (b.size() != n)
+        {
+            return false;
+        }
+
+        for (int i = 0; i != n; i++)
+        {
+            if (a.getByte(i) != b.getByte(i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int slot(
+        final int hash,
+        final int size)
+    {
+        return (hash ^ (hash >>> 16)) & (size - 1);
+    }
+}
@@ -0,0 +1,268 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * An immutable map from object identifiers to values, supporting exact and
+ * longest-prefix lookups.
+ * <p>
+ * The trie is keyed by the encoded contents octets of the identifiers. As every
+ * subidentifier ends with an octet that has bit 8 clear, a stem's contents are a prefix
+ * of an identifier's contents exactly when the identifier is {@link ASN1ObjectIdentifier#on on}
+ * the stem, so classifying an identifier against any number of stems is one walk over its
+ * contents. A trie is never modified after {@link Builder#build()} and may be shared
+ * between threads.
+ * </p>
+ *
+ * @param <V> the type of the values.
+ */
+public final class OidTrie<V>
+{
+    private final Node<V> root;
+    private final int     size;
+
+    private OidTrie(
+        final Node<V> root,
+        final int     size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <V> Builder<V> builder()
+    {
+        return new Builder<>();
+    }
+
+    /**
+     * @return the number of identifiers in this trie.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Return the value registered for exactly this identifier.
+     *
+     * @param oid the identifier to look up.
+     * @return the value, or null if there is none.
+     */
+    public V get(final ASN1ObjectIdentifier oid)
+    {
+        return get(oid.getBody());
+    }
+
+    /**
+     * Return the value registered for the identifier with the passed in contents octets.
+     *
+     * @param body the contents octets of an OBJECT IDENTIFIER.
+     * @return the value, or null if there is none.
+     */
+    public V get(final Bytes body)
+    {
+        Node<V> node = root;
+
+        for (int i = 0; i != body.size() && node != null; i++)
+        {
+            node = node.child(body.getByte(i));
+        }
+
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Return the value registered for the identifier itself or, failing that, for the
+     * longest registered stem the identifier is on.
+     *
+     * @param oid the identifier to classify.
+     * @return the value, or null if neither the identifier nor any of its stems is registered.
+     */
+    public V getLongestPrefix(final ASN1ObjectIdentifier oid)
+    {
+        return getLongestPrefix(oid.getBody());
+    }
+
+    /**
+     * Return the value registered for the longest prefix of the passed in contents octets.
+     *
+     * @param body the contents octets of an OBJECT IDENTIFIER.
+     * @return the value, or null if there is none.
+     */
+    public V getLongestPrefix(final Bytes body)
+    {
+        Node<V> node = root;
+        V result = null;
+
+        for (int i = 0; i != body.size(); i++)
+        {
+            node = node.child(body.getByte(i));
+
+            if (node == null)
+            {
+                break;
+            }
+
+            if (node.value != null)
+            {
+                result = node.value;
+            }
+        }
+
+        return result;
+    }
+
+    private static final class Node<V>
+    {
+        // labels are sorted as unsigned octets
+        private final byte[]    labels;
+        private final Node<V>[] children;
+        private final V         value;
+
+        Node(
+            final byte[]    labels,
+            final Node<V>[] children,
+            final V         value)
+        {
+            this.labels = labels;
+            this.children = children;
+            this.value = value;
+        }
+
+        Node<V> child(final byte label)
+        {
+            final int key = label & 0xff;
+            int low = 0;
+            int high = labels.length - 1;
+
+            while (low <= high)
+            {
+                final int mid = (low + high) >>> 1;
+                final int midKey = labels[mid] & 0xff;
+
+                if (midKey < key)
+                {
+                    low = mid + 1;
+                }
+                else if (midKey > key)
+                {
+                    high = mid - 1;
+                }
+                else
+                {
+                    return children[mid];
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * Collects the entries of a trie. A builder is not thread safe.
+     *
+     * @param <V> the type of the values.
+     */
+    public static final class Builder<V>
+    {
+        private final Entry<V> root = new Entry<>();
+        private int            size;
+
+        private Builder()
+        {
+        }
+
+        /**
+         * Register a value for an identifier, replacing any previous value for it.
+         *
+         * @param oid the identifier, or stem for prefix lookups.
+         * @param value the value, which may not be null.
+         * @return this builder.
+         */
+        public Builder<V> put(
+            final ASN1ObjectIdentifier oid,
+            final V                    value)
+        {
+            if (value == null)
+            {
+                throw new IllegalArgumentException("value cannot be null");
+            }
+
+            final Bytes body = oid.getBody();
+            Entry<V> entry = root;
+
+            for (int i = 0; i != body.size(); i++)
+            {
+                entry = entry.children.computeIfAbsent(body.getByte(i) & 0xff, k -> new Entry<>());
+            }
+
+            if (entry.value == null)
+            {
+                size++;
+            }
+            entry.value = value;
+
+            return this;
+        }
+
+        public OidTrie<V> build()
+        {
+            return new OidTrie<>(root.toNode(), size);
+        }
+    }
+
+    private static final class Entry<V>
+    {
+        private final TreeMap<Integer, Entry<V>> children = new TreeMap<>();
+        private V                                value;
+
+        Node<V> toNode()
+        {
+            final byte[] labels = new byte[children.size()];
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            final Node<V>[] nodes = new Node[children.size()];
+            int i = 0;
+
+            for (final Map.Entry<Integer, Entry<V>> child : children.entrySet())
+            {
+                labels[i] = (byte)child.getKey().intValue();
+                nodes[i] = child.getValue().toNode();
+                i++;
+            }
+
+            return new Node<>(labels, nodes, value);
+        }
+    }
+}
@@ -57,6 +57,14 @@ class StreamUtil
         {
             return ((ASN1InputStream)in).getLimit();
         }
+        else if (in instanceof BytesInputStream)
+        {
+            return ((BytesInputStream)in).available();
+        }
+        else if (in instanceof ByteBufferInputStream)
+        {
+            return ((ByteBufferInputStream)in).available();
+        }
         else if (in instanceof ByteArrayInputStream)
         {
             return ((ByteArrayInputStream)in).available();
@@ -87,6 +95,32 @@ class StreamUtil
         return (int)MAX_MEMORY;
     }
 
+    /**
+     * Take the next length bytes of in as a sub list of the underlying data, if in
+     * is ultimately backed by an in-memory encoding.
+     *
+     * @param in input stream of interest
+     * @param length the number of bytes to take.
+     * @return the slice, or null if in cannot provide one.
+     */
+    static Bytes readSlice(final InputStream in, final int length)
+    {
+        if (in instanceof BytesInputStream)
+        {
+            return ((BytesInputStream)in).readSlice(length);
+        }
+        else if (in instanceof DefiniteLengthInputStream)
+        {
+            return ((DefiniteLengthInputStream)in).readSlice(length);
+        }
+        else if (in instanceof ASN1InputStream)
+        {
+            return ((ASN1InputStream)in).readSlice(length);
+        }
+
+        return null;
+    }
+
     static int typicalLength(final Bytes encoded){
       return 1 + calculateBodyLength(encoded.size()) + encoded.size();
     }
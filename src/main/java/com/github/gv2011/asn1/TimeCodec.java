@@ -0,0 +1,545 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+
+import java.time.Instant;
+
+import com.github.gv2011.asn1.util.Strings;
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Parser and formatter for the contents of GeneralizedTime and UTCTime, working
+ * directly on the ASCII octets.
+ * <p>
+ * GeneralizedTime is YYYYMMDDHH[MM[SS]][(.|,)f...][Z|(+|-)HH[MM]], where the fraction
+ * applies to the last unit present. A value without a zone is taken as UTC, as it always
+ * has been by {@link ASN1GeneralizedTime#getDate()}. UTCTime is YYMMDDHHMM[SS][Z|(+|-)HH[MM]].
+ * Calendar arithmetic is done by hand on the proleptic Gregorian calendar, so no
+ * formatter, calendar or time zone object is involved.
+ * </p>
+ */
+final class TimeCodec
+{
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final int  SECONDS_PER_DAY = 86400;
+
+    // days from 0000-03-01 to 1970-01-01
+    private static final long DAYS_0000_TO_1970 = 719468;
+
+    private TimeCodec()
+    {
+    }
+
+    /**
+     * Parse the contents of a GeneralizedTime.
+     *
+     * @throws IllegalArgumentException if time is not a valid GeneralizedTime.
+     */
+    static Instant parseGeneralizedTime(
+        final Bytes time)
+    {
+        return parse(time, false, 0);
+    }
+
+    /**
+     * Parse the contents of a UTCTime.
+     *
+     * @param pivotYear the first year of the century the two digit year is taken from.
+     * @throws IllegalArgumentException if time is not a valid UTCTime.
+     */
+    static Instant parseUTCTime(
+        final Bytes time,
+        final int   pivotYear)
+    {
+        return parse(time, true, pivotYear);
+    }
+
+    /**
+     * Return the offset given by the zone designator at the end of a time, 0 for "Z"
+     * or no designator.
+     */
+    static int zoneOffsetSeconds(
+        final Bytes time)
+    {
+        final int len = time.size();
+
+        // +hhmm
+        int pos = len - 5;
+        if (pos > 0 && isSign(time.getByte(pos)))
+        {
+            final int offset = digits(time, pos + 1, 2) * 3600 + digits(time, pos + 3, 2) * 60;
+            return time.getByte(pos) == '-' ? -offset : offset;
+        }
+
+        // +hh
+        pos = len - 3;
+        if (pos > 0 && isSign(time.getByte(pos)))
+        {
+            final int offset = digits(time, pos + 1, 2) * 3600;
+            return time.getByte(pos) == '-' ? -offset : offset;
+        }
+
+        return 0;
+    }
+
+    private static boolean isSign(
+        final byte b)
+    {
+        return b == '+' || b == '-';
+    }
+
+    /**
+     * Format a GeneralizedTime in its DER form, YYYYMMDDHHMMSS[.f]Z with trailing zeros
+     * of the fraction removed.
+     *
+     * @throws IllegalArgumentException if the year is outside 0000 to 9999.
+     */
+    static Bytes formatGeneralizedTime(
+        final long epochSecond,
+        final int  nano)
+    {
+        final byte[] buf = new byte[nano == 0 ? 15 : 25];
+        int pos = formatDateTime(buf, epochSecond, false);
+
+        if (nano != 0)
+        {
+            buf[pos++] = '.';
+
+            int digits = nano;
+            int length = 9;
+            while (digits % 10 == 0)
+            {
+                digits /= 10;
+                length--;
+            }
+            for (int i = length - 1; i >= 0; i--)
+            {
+                buf[pos + i] = (byte)('0' + digits % 10);
+                digits /= 10;
+            }
+            pos += length;
+        }
+
+        buf[pos++] = 'Z';
+
+        return newBytes(buf, 0, pos);
+    }
+
+    /**
+     * Format a UTCTime in its DER form, YYMMDDHHMMSSZ. Only the last two digits of the year
+     * are kept.
+     */
+    static Bytes formatUTCTime(
+        final long epochSecond)
+    {
+        final byte[] buf = new byte[13];
+
+        buf[formatDateTime(buf, epochSecond, true)] = 'Z';
+
+        return newBytes(buf);
+    }
+
+    /**
+     * Compare two times, on their content octets when both are in canonical DER form.
+     */
+    static int compare(
+        final ASN1Time a,
+        final ASN1Time b)
+    {
+        final Bytes x = contents(a);
+        final Bytes y = contents(b);
+
+        if (x != null && y != null)
+        {
+            final boolean xUtc = a instanceof ASN1UTCTime;
+            final boolean yUtc = b instanceof ASN1UTCTime;
+
+            if (isCanonical(x, xUtc) && isCanonical(y, yUtc))
+            {
+                return compareCanonical(x, xUtc, y, yUtc);
+            }
+        }
+
+        return a.getInstant().compareTo(b.getInstant());
+    }
+
+    private static Bytes contents(
+        final ASN1Time time)
+    {
+        if (time instanceof ASN1GeneralizedTime)
+        {
+            return ((ASN1GeneralizedTime)time).time;
+        }
+        if (time instanceof ASN1UTCTime)
+        {
+            return ((ASN1UTCTime)time).string;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return true for YYMMDDHHMMSSZ, or YYYYMMDDHHMMSS[.f]Z for GeneralizedTime.
+     */
+    private static boolean isCanonical(
+        final Bytes   time,
+        final boolean utcTime)
+    {
+        final int len = time.size();
+        final int dateTimeLen = utcTime ? 12 : 14;
+
+        if (len < dateTimeLen + 1 || time.getByte(len - 1) != 'Z')
+        {
+            return false;
+        }
+        for (int i = 0; i != dateTimeLen; i++)
+        {
+            if (!isDigit(time, i))
+            {
+                return false;
+            }
+        }
+
+        if (len == dateTimeLen + 1)
+        {
+            return true;
+        }
+        if (utcTime || len == dateTimeLen + 2 || time.getByte(dateTimeLen) != '.')
+        {
+            return false;
+        }
+        for (int i = dateTimeLen + 1; i != len - 1; i++)
+        {
+            if (!isDigit(time, i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int compareCanonical(
+        final Bytes   x,
+        final boolean xUtc,
+        final Bytes   y,
+        final boolean yUtc)
+    {
+        for (int i = 0; i != 14; i++)
+        {
+            final int diff = dateTimeDigit(x, xUtc, i) - dateTimeDigit(y, yUtc, i);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        // fractions, missing digits count as zero
+        final int xLen = x.size() - 1;
+        final int yLen = y.size() - 1;
+        for (int i = 15; i < xLen || i < yLen; i++)
+        {
+            final int diff = (i < xLen ? x.getByte(i) : '0') - (i < yLen ? y.getByte(i) : '0');
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Return digit i of the time as YYYYMMDDHHMMSS, with the century of a UTCTime
+     * in the range of 1950 - 2049.
+     */
+    private static int dateTimeDigit(
+        final Bytes   time,
+        final boolean utcTime,
+        final int     i)
+    {
+        if (!utcTime)
+        {
+            return time.getByte(i);
+        }
+        if (i >= 2)
+        {
+            return time.getByte(i - 2);
+        }
+
+        final boolean nineteen = time.getByte(0) >= '5';
+        if (i == 0)
+        {
+            return nineteen ? '1' : '2';
+        }
+        return nineteen ? '9' : '0';
+    }
+
+    private static Instant parse(
+        final Bytes   time,
+        final boolean utcTime,
+        final int     pivotYear)
+    {
+        final int len = time.size();
+        int pos;
+
+        final int year;
+        if (utcTime)
+        {
+            year = pivotYear + Math.floorMod(digits(time, 0, 2) - pivotYear, 100);
+            pos = 2;
+        }
+        else
+        {
+            year = digits(time, 0, 4);
+            pos = 4;
+        }
+
+        final int month = digits(time, pos, 2);
+        final int day = digits(time, pos + 2, 2);
+        final int hour = digits(time, pos + 4, 2);
+        pos += 6;
+
+        int minute = 0;
+        int second = 0;
+        int unit = 3600;
+        if (utcTime || isDigit(time, pos))
+        {
+            minute = digits(time, pos, 2);
+            pos += 2;
+            unit = 60;
+
+            if (isDigit(time, pos))
+            {
+                second = digits(time, pos, 2);
+                pos += 2;
+                unit = 1;
+            }
+        }
+
+        long nanos = 0;
+        if (!utcTime && pos < len && (time.getByte(pos) == '.' || time.getByte(pos) == ','))
+        {
+            final int start = ++pos;
+            long fraction = 0;
+            long scale = 1;
+
+            for (; isDigit(time, pos); pos++)
+            {
+                // digits beyond nanosecond precision are dropped
+                if (pos - start < 9)
+                {
+                    fraction = fraction * 10 + (time.getByte(pos) - '0');
+                    scale *= 10;
+                }
+            }
+
+            if (pos == start)
+            {
+                throw invalid(time, "no digits in fraction");
+            }
+
+            nanos = fraction * unit * (NANOS_PER_SECOND / scale);
+        }
+
+        int offset = 0;
+        if (pos < len)
+        {
+            final byte zone = time.getByte(pos++);
+
+            if (zone == '+' || zone == '-')
+            {
+                offset = digits(time, pos, 2) * 3600;
+                pos += 2;
+                if (isDigit(time, pos))
+                {
+                    offset += digits(time, pos, 2) * 60;
+                    pos += 2;
+                }
+                if (zone == '-')
+                {
+                    offset = -offset;
+                }
+            }
+            else if (zone != 'Z')
+            {
+                throw invalid(time, "bad zone designator");
+            }
+        }
+
+        if (pos != len)
+        {
+            throw invalid(time, "unexpected characters at end");
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+            || hour > 23 || minute > 59 || second > 59)
+        {
+            throw invalid(time, "field out of range");
+        }
+
+        final long epochSecond = epochDay(year, month, day) * SECONDS_PER_DAY
+            + hour * 3600 + minute * 60 + second - offset + nanos / NANOS_PER_SECOND;
+
+        return Instant.ofEpochSecond(epochSecond, nanos % NANOS_PER_SECOND);
+    }
+
+    /**
+     * Write YYYYMMDDHHMMSS, or YYMMDDHHMMSS for UTCTime, to the start of buf.
+     *
+     * @return the number of octets written.
+     */
+    private static int formatDateTime(
+        final byte[]  buf,
+        final long    epochSecond,
+        final boolean utcTime)
+    {
+        final long days = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        final int  secondOfDay = Math.toIntExact(epochSecond - days * SECONDS_PER_DAY);
+
+        // civil date from day count, see H. Hinnant, "chrono-Compatible Low-Level Date Algorithms"
+        final long z = days + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(z, 146097);
+        final int  doe = (int)(z - era * 146097);
+        final int  yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int  doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int  mp = (5 * doy + 2) / 153;
+        final int  day = doy - (153 * mp + 2) / 5 + 1;
+        final int  month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        int pos = 0;
+        if (utcTime)
+        {
+            pos = put(buf, pos, Math.toIntExact(Math.floorMod(year, 100L)));
+        }
+        else
+        {
+            if (year < 0 || year > 9999)
+            {
+                throw new IllegalArgumentException("year " + year + " cannot be represented in GeneralizedTime");
+            }
+            pos = put(buf, pos, (int)year / 100);
+            pos = put(buf, pos, (int)year % 100);
+        }
+        pos = put(buf, pos, month);
+        pos = put(buf, pos, day);
+        pos = put(buf, pos, secondOfDay / 3600);
+        pos = put(buf, pos, secondOfDay / 60 % 60);
+        pos = put(buf, pos, secondOfDay % 60);
+
+        return pos;
+    }
+
+    private static int put(
+        final byte[] buf,
+        final int    pos,
+        final int    twoDigits)
+    {
+        buf[pos] = (byte)('0' + twoDigits / 10);
+        buf[pos + 1] = (byte)('0' + twoDigits % 10);
+
+        return pos + 2;
+    }
+
+    private static long epochDay(
+        final int year,
+        final int month,
+        final int day)
+    {
+        final int  y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final int  yoe = (int)(y - era * 400);
+        final int  doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int  doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+
+        return era * 146097 + doe - DAYS_0000_TO_1970;
+    }
+
+    private static int lengthOfMonth(
+        final int year,
+        final int month)
+    {
+        switch (month)
+        {
+            case 2:
+                return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isDigit(
+        final Bytes time,
+        final int   pos)
+    {
+        if (pos >= time.size())
+        {
+            return false;
+        }
+
+        final byte b = time.getByte(pos);
+
+        return '0' <= b && b <= '9';
+    }
+
+    private static int digits(
+        final Bytes time,
+        final int   pos,
+        final int   count)
+    {
+        int value = 0;
+
+        for (int i = pos; i != pos + count; i++)
+        {
+            if (!isDigit(time, i))
+            {
+                throw invalid(time, "digit expected at position " + i);
+            }
+            value = value * 10 + (time.getByte(i) - '0');
+        }
+
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(
+        final Bytes  time,
+        final String reason)
+    {
+        return new IllegalArgumentException("invalid time " + Strings.fromByteArray(time) + ": " + reason);
+    }
+}
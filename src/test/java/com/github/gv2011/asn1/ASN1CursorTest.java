@@ -0,0 +1,115 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1CursorTest {
+
+  @Test
+  public void testDefinite(){
+    final DERSequence seq = new DERSequence(new ASN1Encodable[]{
+      new ASN1Integer(5),
+      new DERSequence(new DEROctetString(parseHex("01 02 03"))),
+      new DERTaggedObject(true, 3, new DERUTF8String("x"))
+    });
+    final Bytes encoded = seq.getEncoded();
+
+    final ASN1Cursor cursor = new ASN1Cursor(encoded);
+    assertTrue(cursor.next());
+    assertEquals(BERTags.SEQUENCE, cursor.tagNo());
+    assertTrue(cursor.isConstructed());
+    cursor.enter();
+
+    assertTrue(cursor.next());
+    assertEquals(0, cursor.tagClass());
+    assertEquals(BERTags.INTEGER, cursor.tagNo());
+    assertEquals(new ASN1Integer(5), cursor.getObject());
+
+    assertTrue(cursor.next());
+    assertEquals(BERTags.SEQUENCE, cursor.tagNo());
+
+    assertTrue(cursor.next());
+    assertEquals(BERTags.TAGGED, cursor.tagClass());
+    assertEquals(3, cursor.tagNo());
+    cursor.enter();
+    assertTrue(cursor.next());
+    assertEquals(BERTags.UTF8_STRING, cursor.tagNo());
+    assertEquals(1, cursor.contentLength());
+    assertEquals('x', encoded.getByte(cursor.contentOffset()));
+    cursor.exit();
+
+    assertFalse(cursor.next());
+    cursor.exit();
+    assertFalse(cursor.next());
+  }
+
+  @Test
+  public void testIndefinite(){
+    // SEQUENCE (indef) { SEQUENCE (indef) { INTEGER 1 }, INTEGER 2 } followed by NULL
+    final Bytes encoded = parseHex("30 80 30 80 02 01 01 00 00 02 01 02 00 00 05 00");
+
+    final ASN1Cursor cursor = new ASN1Cursor(encoded);
+    assertTrue(cursor.next());
+    assertEquals(-1, cursor.contentLength());
+    cursor.enter();
+    assertTrue(cursor.next());
+    assertEquals(BERTags.SEQUENCE, cursor.tagNo());
+    assertTrue(cursor.next());
+    assertEquals(new ASN1Integer(2), cursor.getObject());
+    assertFalse(cursor.next());
+    cursor.exit();
+
+    assertTrue(cursor.next());
+    assertEquals(BERTags.NULL, cursor.tagNo());
+    assertFalse(cursor.next());
+
+    final ASN1Cursor skipping = new ASN1Cursor(encoded);
+    assertTrue(skipping.next());
+    skipping.skip();
+    assertTrue(skipping.next());
+    assertEquals(BERTags.NULL, skipping.tagNo());
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testOutOfBounds(){
+    final ASN1Cursor cursor = new ASN1Cursor(parseHex("30 03 02 05 01"));
+    cursor.next();
+    cursor.enter();
+    cursor.next();
+  }
+}
@@ -0,0 +1,135 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1IndexTest {
+
+  private static Bytes sample(){
+    return new DERSequence(new ASN1Encodable[]{
+      new ASN1Integer(-300),
+      new DERSequence(new ASN1Encodable[]{
+        new ASN1ObjectIdentifier("1.2.840.113549.1.1.11"),
+        new DERUTF8String("h\u00e9llo")
+      }),
+      new DERTaggedObject(true, 3, new DERGeneralizedTime("20070315173729Z")),
+      new ASN1Integer(new BigInteger("123456789012345678901234567890"))
+    }).getEncoded();
+  }
+
+  private static void checkSample(final ASN1Index index){
+    assertEquals(8, index.size());
+    final int root = index.root();
+    assertEquals(0, root);
+    assertEquals(4, index.childCount(root));
+    assertEquals(-1, index.nextSibling(root));
+
+    final int integer = index.firstChild(root);
+    assertEquals(BERTags.INTEGER, index.tagNo(integer));
+    assertEquals(-300, index.getLong(integer));
+    assertEquals(root, index.parent(integer));
+
+    final int inner = index.nextSibling(integer);
+    assertTrue(index.isConstructed(inner));
+    final int oid = index.firstChild(inner);
+    assertEquals(new ASN1ObjectIdentifier("1.2.840.113549.1.1.11"), index.getObjectIdentifier(oid));
+    assertEquals("h\u00e9llo", index.getString(index.nextSibling(oid)));
+
+    final int tagged = index.child(root, 2);
+    assertEquals(BERTags.TAGGED, index.tagClass(tagged));
+    assertEquals(3, index.tagNo(tagged));
+    assertEquals(Instant.parse("2007-03-15T17:37:29Z"), index.getInstant(index.firstChild(tagged)));
+
+    final int big = index.child(root, 3);
+    assertEquals(new BigInteger("123456789012345678901234567890"), index.getBigInteger(big));
+    assertEquals(-1, index.child(root, 4));
+
+    assertEquals(new ASN1Integer(-300), index.getObject(integer));
+    assertEquals(index.endOffset(root), index.endOffset(big));
+  }
+
+  @Test
+  public void testBytes(){
+    final Bytes encoded = sample();
+    final ASN1Index index = new ASN1Index(encoded);
+    checkSample(index);
+    assertEquals(encoded, index.getEncoded(index.root()));
+  }
+
+  @Test
+  public void testByteBuffer(){
+    final byte[] encoded = sample().toByteArray();
+    final ByteBuffer buffer = ByteBuffer.allocate(encoded.length + 3);
+    buffer.position(3);
+    buffer.put(encoded);
+    buffer.position(3);
+    checkSample(new ASN1Index(buffer));
+    assertEquals(3, buffer.position());
+  }
+
+  @Test
+  public void testIndefinite(){
+    // SEQUENCE (indef) { SEQUENCE (indef) { INTEGER 1 }, INTEGER 2 } followed by NULL
+    final ASN1Index index = new ASN1Index(parseHex("30 80 30 80 02 01 01 00 00 02 01 02 00 00 05 00"));
+    assertEquals(5, index.size());
+    assertTrue(index.isIndefiniteLength(0));
+    assertEquals(10, index.contentLength(0));
+    assertEquals(14, index.endOffset(0));
+    assertEquals(1, index.getLong(2));
+    assertEquals(3, index.nextSibling(1));
+    assertEquals(2, index.getLong(3));
+    assertEquals(4, index.nextSibling(0));
+    assertEquals(BERTags.NULL, index.tagNo(4));
+    assertEquals(-1, index.parent(4));
+    assertFalse(index.isConstructed(4));
+  }
+
+  @Test(expected = ArithmeticException.class)
+  public void testLongOverflow(){
+    final ASN1Index index = new ASN1Index(new ASN1Integer(BigInteger.ONE.shiftLeft(64)).getEncoded());
+    index.getLong(0);
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testOutOfBounds(){
+    new ASN1Index(parseHex("30 03 02 05 01"));
+  }
+}
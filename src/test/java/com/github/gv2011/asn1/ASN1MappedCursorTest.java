@@ -0,0 +1,108 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1MappedCursorTest {
+
+  @Test
+  public void testTopLevel() throws IOException{
+    final Bytes first = new DERSequence(new ASN1Encodable[]{
+      new ASN1Integer(5),
+      new DEROctetString(parseHex("01 02 03"))
+    }).getEncoded();
+    final Bytes second = new DERUTF8String("x").getEncoded();
+
+    final Path file = Files.createTempFile("asn1", ".der");
+    try{
+      try(OutputStream out = Files.newOutputStream(file)){
+        first.write(out);
+        second.write(out);
+      }
+      try(ASN1MappedCursor cursor = new ASN1MappedCursor(file)){
+        assertEquals(first.size()+second.size(), cursor.size());
+
+        assertTrue(cursor.next());
+        assertEquals(BERTags.SEQUENCE, cursor.tagNo());
+        final ByteBuffer encoded = cursor.getEncoded();
+        assertEquals(first.size(), encoded.remaining());
+        assertEquals(new DERSequence(new ASN1Encodable[]{
+          new ASN1Integer(5),
+          new DEROctetString(parseHex("01 02 03"))
+        }), cursor.getObject());
+
+        cursor.enter();
+        assertTrue(cursor.next());
+        assertEquals(new ASN1Integer(5), cursor.getObject());
+        cursor.exit();
+
+        assertTrue(cursor.next());
+        assertEquals(first.size(), cursor.headerOffset());
+        assertEquals(new DERUTF8String("x"), cursor.getObject());
+        assertFalse(cursor.next());
+      }
+    }
+    finally{
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testLongLength() throws IOException{
+    // OCTET STRING with an 8 octet length field
+    final Path file = Files.createTempFile("asn1", ".ber");
+    try{
+      Files.write(file, parseHex("04 88 00 00 00 00 00 00 00 02 AB CD").toByteArray());
+      try(ASN1MappedCursor cursor = new ASN1MappedCursor(file)){
+        assertTrue(cursor.next());
+        assertEquals(10L, cursor.contentOffset());
+        assertEquals(2L, cursor.contentLength());
+        assertFalse(cursor.next());
+      }
+    }
+    finally{
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Tests for the buffered output of ASN1OutputStream.
+ */
+public class ASN1OutputStreamTest {
+
+  @Test
+  public void testOutputPassedOnPerObject() throws IOException {
+    final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    final ASN1OutputStream aOut = new ASN1OutputStream(bOut);
+
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+    for (int i = 0; i != 5000; i++) {
+      v.add(new ASN1Integer(i));
+    }
+    final DERSequence large = new DERSequence(v);
+    final DEROctetString octets = new DEROctetString(newBytes(new byte[20000]));
+
+    aOut.writeObject(ASN1Boolean.TRUE);
+    assertArrayEquals(ASN1Boolean.TRUE.getEncoded().toByteArray(), bOut.toByteArray());
+
+    aOut.writeObject(large);
+    aOut.writeObject(octets);
+    assertEquals(3 + large.getEncodedLength() + octets.getEncodedLength(), bOut.size());
+
+    final ASN1InputStream in = new ASN1InputStream(newBytes(bOut.toByteArray()));
+    assertEquals(ASN1Boolean.TRUE, in.readObject());
+    assertEquals(large, in.readObject());
+    assertEquals(octets, in.readObject());
+  }
+
+  @Test
+  public void testHighTagNumbers() {
+    assertEquals(parseHex("9e0101"), new DERTaggedObject(false, 30, new ASN1Integer(1)).getEncoded());
+    assertEquals(parseHex("9f1f0101"), new DERTaggedObject(false, 31, new ASN1Integer(1)).getEncoded());
+    assertEquals(parseHex("9f7f0101"), new DERTaggedObject(false, 127, new ASN1Integer(1)).getEncoded());
+    assertEquals(parseHex("9f81000101"), new DERTaggedObject(false, 128, new ASN1Integer(1)).getEncoded());
+    assertEquals(parseHex("9f87ffffff7f0101"), new DERTaggedObject(false, Integer.MAX_VALUE, new ASN1Integer(1)).getEncoded());
+  }
+
+  @Test
+  public void testImplicitLazySequence() {
+    final DERSequence seq = new DERSequence(new ASN1Encodable[] {new ASN1Integer(1), new ASN1Integer(2)});
+    final ASN1Primitive lazy = new ASN1InputStream(seq.getEncoded(), true, true).readObject();
+
+    assertEquals(new DERTaggedObject(false, 2, seq).getEncoded(), new DERTaggedObject(false, 2, lazy).getEncoded());
+  }
+}
@@ -0,0 +1,92 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1ParallelDecoderTest {
+
+  private static ASN1EncodableVector elements(final int count){
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+    for (int i = 0; i != count; i++) {
+      v.add(new DERSequence(new ASN1Encodable[]{
+        new ASN1Integer(i),
+        new DERUTF8String("element " + i),
+        new DERTaggedObject(false, 1, new DEROctetString(new ASN1Integer(i * 31L)))
+      }));
+    }
+    return v;
+  }
+
+  @Test
+  public void testSequence(){
+    final Bytes encoded = new DERSequence(elements(5000)).getEncoded();
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final ASN1Sequence parallel = new ASN1ParallelDecoder(pool, 16).decodeSequence(encoded);
+      final ASN1Sequence sequential = ASN1Sequence.getInstance(ASN1Primitive.fromBytes(encoded));
+      assertEquals(sequential.getClass(), parallel.getClass());
+      assertEquals(5000, parallel.size());
+      assertEquals(sequential, parallel);
+      assertEquals(sequential.getObjectAt(4711).getClass(), parallel.getObjectAt(4711).getClass());
+      assertEquals(encoded, parallel.getEncoded());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testSet(){
+    final Bytes encoded = new DERSet(elements(1000)).getEncoded();
+    final ASN1Set parallel = new ASN1ParallelDecoder().decodeSet(encoded);
+    assertEquals(ASN1Primitive.fromBytes(encoded), parallel);
+    assertEquals(encoded, parallel.getEncoded());
+  }
+
+  @Test
+  public void testFallback(){
+    final Bytes encoded = parseHex("30 80 02 01 01 02 01 02 00 00");
+    assertEquals(ASN1Primitive.fromBytes(encoded), new ASN1ParallelDecoder().decode(encoded));
+    assertEquals(new ASN1Integer(7), new ASN1ParallelDecoder().decode(new ASN1Integer(7).getEncoded()));
+    assertNull(new ASN1ParallelDecoder().decode(parseHex("")));
+  }
+
+  @Test(expected = ASN1Exception.class)
+  public void testExtraData(){
+    new ASN1ParallelDecoder().decode(parseHex("30 03 02 01 01 05 00"));
+  }
+}
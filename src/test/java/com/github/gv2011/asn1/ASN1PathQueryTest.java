@@ -0,0 +1,156 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.gv2011.asn1.ASN1PathQuery.Match;
+import com.github.gv2011.util.bytes.ByteUtils;
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1PathQueryTest {
+
+  private static final ASN1Integer SERIAL = new ASN1Integer(4711);
+  private static final ASN1GeneralizedTime NOT_AFTER = new DERGeneralizedTime("20300101000000Z");
+
+  // shaped like a certificate: SEQUENCE { tbs SEQUENCE { [0] version, serial, algorithm, issuer,
+  // validity, subject, [3] extensions }, algorithm, signature }
+  private static Bytes certificate(){
+    final DERSequence name = new DERSequence(new DERSet(new DERSequence(new ASN1Encodable[]{
+      new ASN1ObjectIdentifier("2.5.4.3"), new DERUTF8String("issuer")
+    })));
+    final DERSequence algorithm = new DERSequence(new ASN1ObjectIdentifier("1.2.840.113549.1.1.11"));
+    final DERSequence tbs = new DERSequence(new ASN1Encodable[]{
+      new DERTaggedObject(true, 0, new ASN1Integer(2)),
+      SERIAL,
+      algorithm,
+      name,
+      new DERSequence(new ASN1Encodable[]{new DERGeneralizedTime("20200101000000Z"), NOT_AFTER}),
+      name,
+      new DERTaggedObject(true, 3, new DERSequence(new ASN1Encodable[]{
+        new DERSequence(new ASN1ObjectIdentifier("2.5.29.19")),
+        new DERSequence(new ASN1ObjectIdentifier("2.5.29.15"))
+      }))
+    });
+    return new DERSequence(new ASN1Encodable[]{tbs, algorithm, new DERBitString(ByteUtils.newBytes(new byte[64]))}).getEncoded();
+  }
+
+  private static void check(final List<Match> matches, final Bytes encoded){
+    assertEquals(4, matches.size());
+    assertEquals(SERIAL, matches.get(0).getObject());
+    assertEquals(1, matches.get(0).getPathIndex());
+    assertEquals("0/0/3", matches.get(1).getPath());
+    assertEquals(NOT_AFTER, matches.get(2).getObject());
+    assertEquals(0, matches.get(3).getPathIndex());
+    assertEquals(
+      encoded.subList((int)matches.get(1).getOffset(), (int)matches.get(1).getOffset() + matches.get(1).getEncoded().size()),
+      matches.get(1).getEncoded()
+    );
+  }
+
+  @Test
+  public void testBytes(){
+    final Bytes encoded = certificate();
+    final ASN1PathQuery query = ASN1PathQuery.compile("0/0/[3]/0/*/0", "0/0/1", "0/0/3", "0/0/4/1");
+    final List<Match> matches = query.evaluate(encoded);
+    check(matches.subList(0, 4), encoded);
+    assertEquals(5, matches.size());
+    assertEquals(new ASN1ObjectIdentifier("2.5.29.15"), matches.get(4).getObject());
+  }
+
+  @Test
+  public void testStream(){
+    final Bytes encoded = certificate();
+    final ASN1PathQuery query = ASN1PathQuery.compile("[UNIVERSAL 16]/0/[3]/0", "0/0/1", "0/0/3", "0/0/4/1");
+    // hide the stream type, so nothing but plain reads and skips are used
+    final List<Match> matches = query.evaluate(new FilterInputStream(encoded.openStream()){});
+    check(matches, encoded);
+    assertTrue(matches.get(3).getObject() instanceof ASN1Sequence);
+  }
+
+  @Test
+  public void testNested(){
+    final Bytes encoded = certificate();
+    final List<Match> matches = ASN1PathQuery.compile("0/0/4", "0/0/4/*").evaluate(new FilterInputStream(encoded.openStream()){});
+    assertEquals(3, matches.size());
+    assertEquals("0/0/4", matches.get(0).getPath());
+    assertEquals(NOT_AFTER, matches.get(2).getObject());
+    assertEquals(ASN1Sequence.getInstance(matches.get(0).getEncoded()).getObjectAt(1), NOT_AFTER);
+  }
+
+  @Test
+  public void testIndefinite(){
+    // SEQUENCE (indef) { SEQUENCE (indef) { INTEGER 1 }, INTEGER 2 } followed by NULL
+    final Bytes encoded = parseHex("30 80 30 80 02 01 01 00 00 02 01 02 00 00 05 00");
+    final List<Match> matches = ASN1PathQuery.compile("0/0", "0/1", "1").evaluate(new FilterInputStream(encoded.openStream()){});
+    assertEquals(3, matches.size());
+    assertEquals(parseHex("30 80 02 01 01 00 00"), matches.get(0).getEncoded());
+    assertEquals(new ASN1Integer(2), matches.get(1).getObject());
+    assertEquals(DERNull.INSTANCE, matches.get(2).getObject());
+  }
+
+  @Test
+  public void testBytesSameAsStream(){
+    for (final Bytes encoded : new Bytes[]{certificate(), parseHex("30 80 30 80 02 01 01 00 00 02 01 02 00 00 05 00")}) {
+      final ASN1PathQuery query = ASN1PathQuery.compile("0", "0/*", "0/0/*", "*/1", "0/[3]/0");
+      final List<Match> fromBytes = query.evaluate(encoded);
+      final List<Match> fromStream = query.evaluate(new FilterInputStream(encoded.openStream()){});
+      assertEquals(fromStream.toString(), fromBytes.toString());
+      for (int i = 0; i != fromBytes.size(); i++) {
+        assertEquals(fromStream.get(i).getEncoded(), fromBytes.get(i).getEncoded());
+      }
+    }
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testTruncatedSkip(){
+    // OCTET STRING of 5 octets cut short after 2, from a stream that skips past its end
+    final Bytes encoded = parseHex("04 05 61 61");
+    ASN1PathQuery.compile("1").evaluate(new FilterInputStream(encoded.openStream()){
+      @Override
+      public long skip(final long n) throws IOException {
+        super.skip(n);
+        return n;
+      }
+    });
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMalformedPath(){
+    ASN1PathQuery.compile("0/[FOO 1]");
+  }
+}
@@ -0,0 +1,151 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.ByteUtils;
+import com.github.gv2011.util.bytes.Bytes;
+import com.github.gv2011.util.bytes.BytesBuilder;
+
+public class ASN1PushParserTest {
+
+  private static final DERSequence SEQUENCE = new DERSequence(new ASN1Encodable[]{
+    new ASN1Integer(1),
+    new DERSequence(),
+    new DERTaggedObject(true, 0x1234, new DERUTF8String("abc"))
+  });
+
+  // SEQUENCE (indef) { SEQUENCE (indef) { INTEGER 1 }, INTEGER 2 }
+  private static final Bytes INDEFINITE = parseHex("30 80 30 80 02 01 01 00 00 02 01 02 00 00");
+
+  private static Bytes input(){
+    final BytesBuilder builder = ByteUtils.newBytesBuilder();
+    SEQUENCE.getEncoded().write(builder);
+    INDEFINITE.write(builder);
+    DERNull.INSTANCE.getEncoded().write(builder);
+    return builder.build();
+  }
+
+  private static void checkObjects(final ASN1PushParser parser){
+    assertEquals(SEQUENCE, parser.poll());
+    assertEquals(ASN1Primitive.fromBytes(INDEFINITE), parser.poll());
+    assertEquals(DERNull.INSTANCE, parser.poll());
+    assertNull(parser.poll());
+    assertTrue(parser.isIdle());
+    parser.endOfInput();
+  }
+
+  @Test
+  public void testSingleBytes(){
+    final byte[] input = input().toByteArray();
+    final ASN1PushParser parser = new ASN1PushParser();
+    int complete = 0;
+    for (final byte b: input) {
+      final int available = parser.feed(ByteBuffer.wrap(new byte[]{b}));
+      assertTrue(available >= complete);
+      complete = available;
+    }
+    assertEquals(3, complete);
+    checkObjects(parser);
+  }
+
+  @Test
+  public void testChunks(){
+    final byte[] input = input().toByteArray();
+    for (int size = 2; size < input.length; size += 3) {
+      final ASN1PushParser parser = new ASN1PushParser();
+      for (int i = 0; i < input.length; i += size) {
+        parser.feed(ByteBuffer.wrap(input, i, Math.min(size, input.length - i)));
+      }
+      checkObjects(parser);
+    }
+  }
+
+  @Test
+  public void testEvents(){
+    final List<String> events = new ArrayList<>();
+    final ASN1PushParser parser = new ASN1PushParser(Integer.MAX_VALUE, new ASN1PushParser.Listener(){
+      @Override
+      public void start(final int depth, final int tagClass, final int tagNo, final boolean constructed, final int length){
+        events.add("start " + depth + " " + tagNo + " " + length);
+      }
+      @Override
+      public void end(final int depth){
+        events.add("end " + depth);
+      }
+    });
+    final byte[] input = INDEFINITE.toByteArray();
+    parser.feed(ByteBuffer.wrap(input, 0, 7));
+    assertEquals("[start 0 16 -1, start 1 16 -1, start 2 2 1, end 2]", events.toString());
+    assertFalse(parser.isIdle());
+    assertNull(parser.poll());
+    events.clear();
+    parser.feed(ByteBuffer.wrap(input, 7, input.length - 7));
+    assertEquals("[end 1, start 1 2 1, end 1, end 0]", events.toString());
+    assertEquals(new ASN1Integer(2), ((ASN1Sequence)parser.poll()).getObjectAt(1));
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testLimit(){
+    new ASN1PushParser(10, null).feed(ByteBuffer.wrap(SEQUENCE.getEncoded().toByteArray()));
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testOutOfBounds(){
+    new ASN1PushParser().feed(ByteBuffer.wrap(parseHex("30 03 02 05 01").toByteArray()));
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testOutOfBoundsInsideIndefinite(){
+    new ASN1PushParser().feed(ByteBuffer.wrap(parseHex("30 04 30 80 04 02 61 61 00 00").toByteArray()));
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testEndOfContentsOutOfBounds(){
+    new ASN1PushParser().feed(ByteBuffer.wrap(parseHex("30 04 30 80 05 00 00 00").toByteArray()));
+  }
+
+  @Test(expected = ASN1ParsingException.class)
+  public void testTruncated(){
+    final ASN1PushParser parser = new ASN1PushParser();
+    parser.feed(ByteBuffer.wrap(parseHex("30 03 02 01").toByteArray()));
+    parser.endOfInput();
+  }
+}
@@ -0,0 +1,110 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class ASN1StreamsTest {
+
+  private static DERSequence numbers(final int count){
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+    for (int i = 0; i != count; i++) {
+      v.add(new ASN1Integer(i));
+    }
+    return new DERSequence(v);
+  }
+
+  @Test
+  public void testElements(){
+    final Bytes encoded = numbers(10000).getEncoded();
+
+    final long sum = ASN1Streams.elements(encoded).parallel()
+      .mapToLong(e -> ((ASN1Integer)e).longValueExact())
+      .sum();
+    assertEquals(10000L * 9999 / 2, sum);
+
+    final List<ASN1Encodable> list = ASN1Streams.elements(encoded).collect(Collectors.toList());
+    assertEquals(10000, list.size());
+    assertEquals(new ASN1Integer(4711), list.get(4711));
+
+    final Spliterator<ASN1Encodable> spliterator = ASN1Streams.elements(encoded).spliterator();
+    assertEquals(10000, spliterator.estimateSize());
+    assertNotNull(spliterator.trySplit());
+    assertEquals(5000, spliterator.estimateSize());
+  }
+
+  @Test
+  public void testIndefinite(){
+    final List<ASN1Encodable> list = ASN1Streams.elements(parseHex("30 80 02 01 01 30 80 05 00 00 00 00 00"))
+      .collect(Collectors.toList());
+    assertEquals(2, list.size());
+    assertEquals(new ASN1Integer(1), list.get(0));
+    assertEquals(new DERSequence(DERNull.INSTANCE), list.get(1));
+  }
+
+  @Test(expected = ASN1Exception.class)
+  public void testElementsExtraData(){
+    ASN1Streams.elements(parseHex("30 03 02 01 01 05 00"));
+  }
+
+  @Test
+  public void testObjects() throws Exception{
+    final Path file = Files.createTempFile("asn1", ".der");
+    try{
+      try(OutputStream out = Files.newOutputStream(file)){
+        for (int i = 0; i != 1000; i++) {
+          numbers(i % 10).getEncoded().write(out);
+        }
+      }
+      try(Stream<ASN1Encodable> objects = ASN1Streams.objects(file)){
+        assertEquals(1000 * 45 / 10, objects.parallel().mapToInt(o -> ((ASN1Sequence)o).size()).sum());
+      }
+      try(Stream<ASN1Encodable> objects = ASN1Streams.objects(file)){
+        assertEquals(numbers(7), objects.skip(997).findFirst().get());
+      }
+    }
+    finally{
+      Files.delete(file);
+    }
+  }
+}
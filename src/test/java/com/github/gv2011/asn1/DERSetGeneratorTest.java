@@ -0,0 +1,116 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for the DER SET generator, in memory and with sorted runs spilled to temporary files.
+ */
+public class DERSetGeneratorTest {
+
+  private static ASN1EncodableVector elements(final int count) {
+    final Random random = new Random(3);
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+
+    for (int i = 0; i != count; i++) {
+      switch (i % 3) {
+        case 0:
+          v.add(new ASN1Integer(random.nextInt(1000)));
+          break;
+        case 1:
+          final byte[] data = new byte[random.nextInt(300)];
+          random.nextBytes(data);
+          v.add(new DEROctetString(newBytes(data)));
+          break;
+        default:
+          v.add(new DERUTF8String("element " + random.nextInt(50)));
+      }
+    }
+
+    return v;
+  }
+
+  private static byte[] generate(final ASN1EncodableVector v, final long threshold) throws IOException {
+    final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+    final DERSetGenerator gen = new DERSetGenerator(bOut, threshold);
+
+    for (int i = 0; i != v.size(); i++) {
+      gen.addObject(v.get(i));
+    }
+    gen.close();
+
+    return bOut.toByteArray();
+  }
+
+  @Test
+  public void testInMemory() throws IOException {
+    final ASN1EncodableVector v = elements(500);
+
+    assertArrayEquals(new DERSet(v).getEncoded().toByteArray(), generate(v, DERSetGenerator.DEFAULT_MEMORY_THRESHOLD));
+  }
+
+  @Test
+  public void testSpilled() throws IOException {
+    final ASN1EncodableVector v = elements(3000);
+
+    assertArrayEquals(new DERSet(v).getEncoded().toByteArray(), generate(v, 10000));
+    assertArrayEquals(new DERSet(v).getEncoded().toByteArray(), generate(v, 1));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertArrayEquals(new DERSet().getEncoded().toByteArray(), generate(new ASN1EncodableVector(), 1));
+  }
+
+  @Test
+  public void testTagged() throws IOException {
+    final ASN1EncodableVector v = elements(200);
+
+    for (final boolean explicit : new boolean[] {true, false}) {
+      final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+      final DERSetGenerator gen = new DERSetGenerator(bOut, 5, explicit, 1000);
+
+      for (int i = 0; i != v.size(); i++) {
+        gen.addObject(v.get(i));
+      }
+      gen.close();
+
+      assertArrayEquals(new DERTaggedObject(explicit, 5, new DERSet(v)).getEncoded().toByteArray(), bOut.toByteArray());
+    }
+  }
+}
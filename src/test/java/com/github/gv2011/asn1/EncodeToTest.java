@@ -0,0 +1,185 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.Pipe;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Tests for writing encodings into caller supplied arrays and buffers.
+ */
+public class EncodeToTest {
+
+  private static ASN1Object[] samples() {
+    final Bytes large = newBytes(new byte[3000]);
+
+    return new ASN1Object[] {
+        new ASN1Integer(BigInteger.ONE.shiftLeft(100)),
+        new DERSequence(new ASN1Encodable[] {
+            new ASN1Integer(42), new ASN1ObjectIdentifier("1.2.840.113549.1.1.11"), new DERUTF8String("test")
+        }),
+        new BERSequence(new ASN1Encodable[] {
+            new BEROctetString(large), new BERTaggedObject(3, new DERUTF8String("x")),
+            new BERTaggedObject(false, 4, new DERSequence(new ASN1Integer(1))), new BERTaggedObject(5),
+            new DERTaggedObject(false, 1, new ASN1Integer(7))
+        }),
+        new DERSet(new ASN1Encodable[] {new DEROctetString(large), new ASN1Integer(-1), ASN1Boolean.TRUE})
+    };
+  }
+
+  @Test
+  public void testEncodeTo() {
+    for (final ASN1Object o : samples()) {
+      for (final String encoding : new String[] {ASN1Encoding.BER, ASN1Encoding.DL, ASN1Encoding.DER}) {
+        final byte[] expected = o.getEncoded(encoding).toByteArray();
+        assertEquals(expected.length, o.getEncodedLength(encoding));
+
+        final byte[] dst = new byte[expected.length + 4];
+        assertEquals(expected.length + 3, o.encodeTo(dst, 3, encoding));
+        assertArrayEquals(expected, Arrays.copyOfRange(dst, 3, expected.length + 3));
+
+        final ByteBuffer direct = ByteBuffer.allocateDirect(expected.length + 1);
+        direct.put((byte)0);
+        o.encodeTo(direct, encoding);
+        assertEquals(expected.length + 1, direct.position());
+        direct.position(1);
+        final byte[] written = new byte[expected.length];
+        direct.get(written);
+        assertArrayEquals(expected, written);
+      }
+      assertEquals(o.getEncoded().size(), o.getEncodedLength());
+    }
+  }
+
+  @Test
+  public void testTooSmall() {
+    final ASN1Object o = new DERUTF8String("test");
+    final byte[] dst = new byte[o.getEncodedLength() - 1];
+    try {
+      o.encodeTo(dst, 0);
+      fail("no exception");
+    } catch (final IllegalArgumentException e) {
+      // expected
+    }
+    assertArrayEquals(new byte[dst.length], dst);
+  }
+
+  @Test
+  public void testSegments() {
+    final byte[] payload = new byte[10000];
+    payload[9999] = 1;
+    final DERSequence seq = new DERSequence(new ASN1Encodable[] {
+        new ASN1Integer(1), new DEROctetString(newBytes(payload)), new ASN1Integer(2)
+    });
+
+    final ByteBuffer[] segments = seq.getEncodedSegments(ASN1Encoding.DER);
+    assertEquals(3, segments.length);
+    assertEquals(payload.length, segments[1].remaining());
+    assertTrue(segments[1].isReadOnly());
+
+    final ByteBuffer all = ByteBuffer.allocate(seq.getEncodedLength());
+    for (final ByteBuffer segment : segments) {
+      all.put(segment);
+    }
+    assertArrayEquals(seq.getEncoded().toByteArray(), all.array());
+
+    for (final ASN1Object o : samples()) {
+      final ByteBuffer joined = ByteBuffer.allocate(o.getEncodedLength());
+      for (final ByteBuffer segment : o.getEncodedSegments()) {
+        joined.put(segment);
+      }
+      assertArrayEquals(o.getEncoded().toByteArray(), joined.array());
+    }
+  }
+
+  @Test
+  public void testChannel() throws IOException {
+    final Path file = Files.createTempFile("encode", ".der");
+    try {
+      final ASN1Object o = samples()[3];
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+        assertEquals(o.getEncodedLength(ASN1Encoding.DER), o.encodeTo(channel, ASN1Encoding.DER));
+      }
+      assertArrayEquals(o.getEncoded(ASN1Encoding.DER).toByteArray(), Files.readAllBytes(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testChannelNoProgress() throws IOException {
+    final ASN1Object o = samples()[1];
+
+    final Pipe pipe = Pipe.open();
+    try {
+      pipe.sink().configureBlocking(false);
+      o.encodeTo(pipe.sink());
+      fail("no exception");
+    } catch (final IllegalBlockingModeException e) {
+      // expected
+    } finally {
+      pipe.sink().close();
+      pipe.source().close();
+    }
+
+    final GatheringByteChannel stalled = new GatheringByteChannel() {
+      @Override public boolean isOpen() { return true; }
+      @Override public void close() {}
+      @Override public int write(final ByteBuffer src) { return 0; }
+      @Override public long write(final ByteBuffer[] srcs) { return 0; }
+      @Override public long write(final ByteBuffer[] srcs, final int offset, final int length) { return 0; }
+    };
+    try {
+      o.encodeTo(stalled);
+      fail("no exception");
+    } catch (final IOException e) {
+      // expected
+    }
+  }
+}
@@ -29,7 +29,10 @@ package com.github.gv2011.asn1;
  */
 
 
+import static org.junit.Assert.assertEquals;
+
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.Date;
 import java.util.SimpleTimeZone;
 import java.util.TimeZone;
@@ -227,4 +230,26 @@ public class GeneralizedTimeTest
         return Integer.toString(time);
     }
 
+    @Test
+    public void testInstant()
+    {
+        assertEquals(Instant.parse("2002-01-22T12:22:20.123456789Z"),
+            new DERGeneralizedTime("20020122122220.1234567891Z").getInstant());
+        assertEquals(Instant.parse("2002-01-22T12:30:00Z"), new DERGeneralizedTime("2002012212.5Z").getInstant());
+        assertEquals(Instant.parse("2002-01-22T12:22:20.5Z"), new DERGeneralizedTime("20020122122220,5").getInstant());
+        assertEquals("2002-01-22T14:22:20+02:00", new DERGeneralizedTime("20020122142220+02").getOffsetDateTime().toString());
+        assertEquals(1011702140123456789L, new DERGeneralizedTime("20020122122220.123456789Z").getEpochNanos());
+
+        assertEquals("20020122122220.12Z", new DERGeneralizedTime(Instant.parse("2002-01-22T12:22:20.120Z")).getTimeString());
+        assertEquals("18991231235959Z", new DERGeneralizedTime(Instant.parse("1899-12-31T23:59:59Z")).getTimeString());
+        assertEquals("20000229000000.001Z", new DERGeneralizedTime(951782400001L).getTimeString());
+        assertEquals(951782400001L, new DERGeneralizedTime(951782400001L).getEpochMillis());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTime()
+    {
+        new DERGeneralizedTime("20020122246000Z");
+    }
+
 }
@@ -29,8 +29,11 @@ package com.github.gv2011.asn1;
  */
 
 
+import static com.github.gv2011.util.bytes.ByteUtils.newBytes;
 import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
 
+import java.io.ByteArrayOutputStream;
+
 import org.junit.Test;
 
 import com.github.gv2011.asn1.util.test.SimpleTest;
@@ -99,5 +102,51 @@ public class InputStreamTest
               }
           }
         }
+
+        // nested contents both inside and across the read-ahead window
+        final ASN1EncodableVector v = new ASN1EncodableVector();
+        for (int i = 0; i != 300; i++)
+        {
+            v.add(new DERSequence(new ASN1Encodable[]{
+                new ASN1Integer(i), new DERSequence(new DEROctetString(newBytes(new byte[i % 50])))
+            }));
+        }
+        final DERSequence nested = new DERSequence(new DERSequence(v));
+
+        try(final ASN1InputStream aIn = new ASN1InputStream(nested.getEncoded())){
+          if (!nested.equals(aIn.readObject()) || aIn.readObject() != null)
+          {
+              fail("nested contents decoded wrongly.");
+          }
+        }
+
+        // a header of six octets split by the end of the read-ahead window after k octets
+        final ASN1EncodableVector split = new ASN1EncodableVector();
+        final ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+        for (int k = 1; k <= 5; k++)
+        {
+            // four header octets, and the contents up to k octets before the window end
+            final DEROctetString filler = new DEROctetString(newBytes(new byte[k * 4096 - k - bOut.size() - 4]));
+            final DERTaggedObject tagged = new DERTaggedObject(false, 1000 + k, new DEROctetString(newBytes(new byte[300])));
+
+            filler.getEncoded().write(bOut);
+            tagged.getEncoded().write(bOut);
+            split.add(filler);
+            split.add(tagged);
+        }
+
+        try(final ASN1InputStream aIn = new ASN1InputStream(newBytes(bOut.toByteArray()))){
+          for (int i = 0; i != split.size(); i++)
+          {
+              if (!split.get(i).equals(aIn.readObject()))
+              {
+                  fail("header across the window end decoded wrongly.");
+              }
+          }
+          if (aIn.readObject() != null)
+          {
+              fail("trailing object found.");
+          }
+        }
     }
 }
@@ -0,0 +1,110 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+/**
+ * Tests for the long valued representation of INTEGER and ENUMERATED.
+ */
+public class IntegerTest {
+
+  private static final long[] values = {
+      0, 1, -1, 127, 128, -128, -129, 255, 256, 1023, 1024, 32767, -32768,
+      Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE
+  };
+
+  @Test
+  public void testEncoding() {
+    for (final long value : values) {
+      final Bytes expected = new ASN1Integer(BigInteger.valueOf(value)).getEncoded();
+      final ASN1Integer i = new ASN1Integer(value);
+
+      assertEquals(expected, i.getEncoded());
+      assertEquals(BigInteger.valueOf(value), i.getValue());
+
+      final ASN1Integer decoded = ASN1Integer.getInstance(expected);
+      assertEquals(value, decoded.longValueExact());
+      assertEquals(i, decoded);
+      assertEquals(i.hashCode(), decoded.hashCode());
+
+      final ASN1Enumerated e = new ASN1Enumerated(value);
+      final ASN1Enumerated decodedE = ASN1Enumerated.getInstance(e.getEncoded());
+      assertEquals(new ASN1Enumerated(BigInteger.valueOf(value)).getEncoded(), e.getEncoded());
+      assertEquals(value, decodedE.longValueExact());
+      assertEquals(e, decodedE);
+      assertEquals(e.hashCode(), decodedE.hashCode());
+    }
+  }
+
+  @Test
+  public void testCache() {
+    assertSame(ASN1Integer.valueOf(-128), ASN1Integer.valueOf(-128));
+    assertSame(ASN1Integer.valueOf(1023), ASN1Integer.getInstance(parseHex("020203ff")));
+    assertSame(ASN1Enumerated.valueOf(7), ASN1Enumerated.getInstance(parseHex("0a0107")));
+
+    // a redundant leading octet must survive re-encoding
+    final ASN1Integer padded = ASN1Integer.getInstance(parseHex("02020001"));
+    assertEquals(parseHex("02020001"), padded.getEncoded());
+    assertEquals(1, padded.intValueExact());
+    assertFalse(padded.equals(ASN1Integer.valueOf(1)));
+  }
+
+  @Test
+  public void testExact() {
+    final ASN1Integer big = new ASN1Integer(BigInteger.ONE.shiftLeft(64));
+    try {
+      big.longValueExact();
+      fail("no exception");
+    } catch (final ArithmeticException e) {
+      // expected
+    }
+    try {
+      new ASN1Integer(1L << 31).intValueExact();
+      fail("no exception");
+    } catch (final ArithmeticException e) {
+      // expected
+    }
+
+    assertEquals(-1, ASN1Integer.getInstance(parseHex("0209ffffffffffffffffff")).longValueExact());
+    assertEquals(BigInteger.ONE.shiftLeft(63), new ASN1Integer(parseHex("008000000000000000")).getValue());
+    assertEquals(BigInteger.valueOf(255), new ASN1Integer(-1).getPositiveValue());
+  }
+}
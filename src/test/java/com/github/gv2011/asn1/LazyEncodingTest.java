@@ -0,0 +1,121 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class LazyEncodingTest {
+
+  private static ASN1Primitive readLazy(final Bytes encoded){
+    return new ASN1InputStream(encoded, true).readObject();
+  }
+
+  @Test
+  public void testSet(){
+    final DERSet set = new DERSet(new ASN1Encodable[]{new ASN1Integer(2), new ASN1Integer(1)});
+
+    final ASN1Primitive lazy = readLazy(set.getEncoded());
+    assertTrue(lazy instanceof LazyEncodedSet);
+    assertEquals(set.getEncoded(), lazy.getEncoded());
+    assertEquals(set, lazy);
+    assertEquals(2, ((ASN1Set)lazy).size());
+    assertEquals(set.getEncoded(), lazy.getEncoded());
+  }
+
+  @Test
+  public void testRandomAccess(){
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+    for(int i=0; i<1000; i++) v.add(new ASN1Integer(i));
+    final DERSequence seq = new DERSequence(v);
+
+    final ASN1Sequence lazy = (ASN1Sequence)readLazy(seq.getEncoded());
+    assertEquals(1000, lazy.size());
+    assertEquals(new ASN1Integer(999), lazy.getObjectAt(999));
+    assertTrue(lazy.getObjectAt(500) == lazy.getObjectAt(500));
+    assertEquals(seq, lazy);
+    assertEquals(seq.getEncoded(), lazy.getEncoded());
+  }
+
+  @Test
+  public void testIndefiniteChild(){
+    // SEQUENCE { SEQUENCE (indef) { INTEGER 1 }, NULL }
+    final Bytes encoded = parseHex("30 09 30 80 02 01 01 00 00 05 00");
+
+    final ASN1Sequence lazy = (ASN1Sequence)readLazy(encoded);
+    assertEquals(2, lazy.size());
+    assertEquals(DERNull.INSTANCE, lazy.getObjectAt(1));
+    assertEquals(new DERSequence(new ASN1Integer(1)), lazy.getObjectAt(0));
+  }
+
+  @Test
+  public void testExplicitTagged(){
+    final DERTaggedObject tagged = new DERTaggedObject(true, 3, new DERSequence(new ASN1Integer(7)));
+
+    final ASN1TaggedObject lazy = (ASN1TaggedObject)readLazy(tagged.getEncoded());
+    assertTrue(lazy.isExplicit());
+    assertEquals(3, lazy.getTagNo());
+    assertEquals(tagged, lazy);
+    assertEquals(new DERSequence(new ASN1Integer(7)), lazy.getObject());
+    assertEquals(tagged.getEncoded(), lazy.getEncoded());
+  }
+
+  @Test
+  public void testImplicitTagged(){
+    // [1] IMPLICIT SEQUENCE { INTEGER 1, INTEGER 2 }
+    final Bytes encoded = parseHex("A1 06 02 01 01 02 01 02");
+
+    final ASN1TaggedObject lazy = (ASN1TaggedObject)readLazy(encoded);
+    assertFalse(lazy.isExplicit());
+    assertEquals(new ASN1InputStream(encoded).readObject(), lazy);
+    assertEquals(2, ASN1Sequence.getInstance(lazy, false).size());
+    assertEquals(encoded, lazy.getEncoded());
+  }
+
+  @Test
+  public void testApplicationSpecific() throws IOException{
+    final Bytes encoded = new DERApplicationSpecific(5, new DERSequence(new ASN1Integer(9))).getEncoded();
+
+    final ASN1ApplicationSpecific lazy = (ASN1ApplicationSpecific)readLazy(encoded);
+    assertEquals(new ASN1InputStream(encoded).readObject(), lazy);
+    final ASN1Primitive contents = lazy.getObject();
+    assertTrue(contents instanceof LazyEncodedSequence);
+    assertTrue(contents == lazy.getObject());
+    assertEquals(new DERSequence(new ASN1Integer(9)), contents);
+  }
+}
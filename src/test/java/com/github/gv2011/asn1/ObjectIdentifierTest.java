@@ -62,6 +62,66 @@ public class ObjectIdentifierTest
         }
     }
 
+    @Test
+    public void testArcs()
+    {
+        final ASN1ObjectIdentifier stem = new ASN1ObjectIdentifier("1.2.840.113549");
+        final ASN1ObjectIdentifier branch = stem.branch(1).branch(1).branch(11);
+
+        assertEquals("1.2.840.113549.1.1.11", branch.getId());
+        assertEquals(new ASN1ObjectIdentifier("1.2.840.113549.1.1.11"), branch);
+        assertEquals(branch, ASN1ObjectIdentifier.getInstance(branch.getEncoded()));
+        assertEquals(branch.hashCode(), new ASN1ObjectIdentifier("1.2.840.113549.1.1.11").hashCode());
+        assertTrue(branch.on(stem));
+        assertFalse(stem.on(stem));
+        assertFalse(new ASN1ObjectIdentifier("1.2.840.1135490").on(stem));
+
+        assertTrue(stem.compareTo(branch) < 0);
+        assertTrue(new ASN1ObjectIdentifier("1.2.9").compareTo(new ASN1ObjectIdentifier("1.2.10")) < 0);
+        assertEquals(0, branch.compareTo(stem.branch("1.1.11")));
+    }
+
+    @Test
+    public void testLargeArcs()
+    {
+        final String id = "2.99999999999999999999.1";
+        final ASN1ObjectIdentifier large = new ASN1ObjectIdentifier(id);
+        final ASN1ObjectIdentifier decoded = ASN1ObjectIdentifier.getInstance(large.getEncoded());
+
+        assertEquals(id, decoded.getId());
+        assertEquals(large, decoded);
+        assertTrue(large.branch(5).on(large));
+        assertTrue(new ASN1ObjectIdentifier("2.5").compareTo(large) < 0);
+    }
+
+    @Test
+    public void testWellKnown()
+    {
+        final Bytes encoded = new ASN1ObjectIdentifier("2.5.4.3").getEncoded();
+        final long hits = ASN1ObjectIdentifier.getPoolHits();
+
+        final ASN1ObjectIdentifier first = ASN1ObjectIdentifier.getInstance(encoded);
+
+        assertSame(first, ASN1ObjectIdentifier.getInstance(encoded));
+        assertSame(first, new ASN1ObjectIdentifier("2.5.4.3").intern());
+        assertTrue(ASN1ObjectIdentifier.getPoolHits() >= hits + 3);
+    }
+
+    @Test
+    public void testPoolBounded()
+    {
+        final long evictions = ASN1ObjectIdentifier.getPoolEvictions();
+
+        for (int i = 0; i != 5000; i++)
+        {
+            final ASN1ObjectIdentifier oid = new ASN1ObjectIdentifier("1.2.3." + i);
+
+            assertEquals(oid, ASN1ObjectIdentifier.getInstance(oid.getEncoded()));
+        }
+
+        assertTrue(ASN1ObjectIdentifier.getPoolEvictions() > evictions);
+    }
+
     @Test
     @Ignore("Takes about 30s")
     public void test(){
@@ -0,0 +1,69 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class OidTrieTest {
+
+  private static final ASN1ObjectIdentifier PKCS1 = new ASN1ObjectIdentifier("1.2.840.113549.1.1");
+  private static final ASN1ObjectIdentifier RSA = PKCS1.branch(1);
+  private static final ASN1ObjectIdentifier SHA256_RSA = PKCS1.branch(11);
+  private static final ASN1ObjectIdentifier PKCS = new ASN1ObjectIdentifier("1.2.840.113549.1");
+
+  private final OidTrie<String> trie = OidTrie.<String>builder()
+    .put(PKCS, "pkcs")
+    .put(PKCS1, "pkcs1")
+    .put(RSA, "rsa")
+    .build();
+
+  @Test
+  public void testExact(){
+    assertEquals(3, trie.size());
+    assertEquals("rsa", trie.get(RSA));
+    assertEquals("pkcs1", trie.get(PKCS1));
+    assertNull(trie.get(SHA256_RSA));
+    assertNull(trie.get(new ASN1ObjectIdentifier("1.2.840")));
+  }
+
+  @Test
+  public void testLongestPrefix(){
+    assertEquals("rsa", trie.getLongestPrefix(RSA));
+    assertEquals("pkcs1", trie.getLongestPrefix(SHA256_RSA));
+    assertEquals("pkcs", trie.getLongestPrefix(new ASN1ObjectIdentifier("1.2.840.113549.1.9.3")));
+    assertNull(trie.getLongestPrefix(new ASN1ObjectIdentifier("1.2.840.113549.2.5")));
+    // 1.2.840.1135491 must not match the stem 1.2.840.113549
+    assertNull(OidTrie.<String>builder().put(new ASN1ObjectIdentifier("1.2.840.113549"), "x").build()
+      .getLongestPrefix(new ASN1ObjectIdentifier("1.2.840.1135491")));
+  }
+}
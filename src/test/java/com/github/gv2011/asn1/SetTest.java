@@ -29,6 +29,10 @@ package com.github.gv2011.asn1;
  */
 
 
+import java.util.Random;
+
+import org.junit.Test;
+
 import com.github.gv2011.asn1.ASN1Boolean;
 import com.github.gv2011.asn1.ASN1EncodableVector;
 import com.github.gv2011.asn1.ASN1Integer;
@@ -140,6 +144,84 @@ public class SetTest
         s = new DERSet(v);
     }
 
+    @Test
+    public void testLargeSort()
+    {
+        final Random random = new Random(17);
+        final ASN1EncodableVector v = new ASN1EncodableVector();
+
+        for (int i = 0; i != 10000; i++)
+        {
+            v.add(new ASN1Integer(random.nextInt(1 << 20) - (1 << 19)));
+        }
+
+        final BERSet unsorted = new BERSet(v);
+        final ASN1Primitive der = unsorted.toDERObject();
+
+        if (der != unsorted.toDERObject())
+        {
+            fail("sorted form not kept");
+        }
+
+        final ASN1Set sorted = (ASN1Set)der;
+        for (int i = 0; i != sorted.size(); i++)
+        {
+            final Bytes encoded = ((ASN1Integer)sorted.getObjectAt(i)).getEncoded();
+            if (i > 0 && compare(((ASN1Integer)sorted.getObjectAt(i - 1)).getEncoded(), encoded) > 0)
+            {
+                fail("not in DER order at " + i);
+            }
+        }
+
+        if (!new DERSet(v).getEncoded().equals(der.getEncoded()))
+        {
+            fail("encodings differ");
+        }
+        if (!ASN1Set.getInstance(der.getEncoded()).equals(der))
+        {
+            fail("sorted set does not decode to itself");
+        }
+    }
+
+    @Test
+    public void testVectorHandOver()
+    {
+        final ASN1EncodableVector v = new ASN1EncodableVector();
+        v.add(new ASN1Integer(2));
+        v.add(new ASN1Integer(1));
+
+        final DERSequence seq = new DERSequence(v);
+        final DERSet set = new DERSet(v);
+
+        v.add(new ASN1Integer(3));
+
+        if (seq.size() != 2 || set.size() != 2 || v.size() != 3)
+        {
+            fail("vector additions visible after hand over");
+        }
+        if (!v.get(0).equals(new ASN1Integer(2)) || !seq.getObjectAt(0).equals(new ASN1Integer(2)))
+        {
+            fail("sorting changed the vector");
+        }
+        if (!set.getObjectAt(0).equals(new ASN1Integer(1)))
+        {
+            fail("set not sorted");
+        }
+    }
+
+    private static int compare(final Bytes a, final Bytes b)
+    {
+        for (int i = 0; i != Math.min(a.size(), b.size()); i++)
+        {
+            final int diff = (a.getByte(i) & 0xff) - (b.getByte(i) & 0xff);
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+        return a.size() - b.size();
+    }
+
     public static void main(
         final String[]    args)
     {
@@ -0,0 +1,137 @@
+package com.github.gv2011.asn1;
+
+/*-
+ * #%L
+ * Vinz ASN.1
+ * %%
+ * Copyright (C) 2016 - 2017 Vinz (https://github.com/gv2011)
+ * %%
+ * Please note this should be read in the same way as the MIT license. (https://www.bouncycastle.org/licence.html)
+ * 
+ * Copyright (c) 2000-2015 The Legion of the Bouncy Castle Inc. (http://www.bouncycastle.org)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software 
+ * and associated documentation files (the "Software"), to deal in the Software without restriction, 
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ * #L%
+ */
+
+
+import static com.github.gv2011.util.bytes.ByteUtils.parseHex;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.gv2011.util.bytes.Bytes;
+
+public class SliceInputTest {
+
+  private static final Bytes data = parseHex("00 01 00 01 00 00 01");
+
+  private static ASN1Primitive sample(){
+    final ASN1EncodableVector v = new ASN1EncodableVector();
+    v.add(new ASN1Integer(1000));
+    v.add(new DEROctetString(data));
+    v.add(new DERUTF8String("hello world"));
+    v.add(new DERBitString(data));
+    v.add(new DERSequence(new ASN1ObjectIdentifier("1.2.840.113549.1.1.11")));
+    v.add(new DERSet(new DERPrintableString("hello world")));
+    v.add(new DERTaggedObject(false, 3, new DEROctetString(data)));
+    return new DERSequence(v);
+  }
+
+  @Test
+  public void testSameResult(){
+    final Bytes encoded = sample().getEncoded();
+    final ASN1Primitive copied = ASN1Primitive.fromBytes(encoded);
+    final ASN1Primitive sliced = ASN1Primitive.fromBytes(encoded, true);
+    assertEquals(copied, sliced);
+    assertEquals(copied.hashCode(), sliced.hashCode());
+    assertEquals(encoded, sliced.getEncoded());
+  }
+
+  @Test
+  public void testLazy(){
+    final Bytes encoded = sample().getEncoded();
+    try(final ASN1InputStream aIn = new ASN1InputStream(encoded, true, true)){
+      final ASN1Sequence seq = (ASN1Sequence) aIn.readObject();
+      assertEquals(7, seq.size());
+      assertEquals(sample(), seq);
+    }
+    catch(final java.io.IOException e){
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void testNonDerBitString(){
+    final ASN1Primitive bits = ASN1Primitive.fromBytes(parseHex("03 02 07 FF"), true);
+    assertTrue(bits instanceof DLBitString);
+    assertEquals(7, ((ASN1BitString)bits).getPadBits());
+  }
+
+  @Test
+  public void testSharedArray(){
+    final Bytes encoded = sample().getEncoded();
+    final ASN1Sequence seq = (ASN1Sequence) ASN1Primitive.fromBytes(encoded, true);
+    final BytesView octets = (BytesView) ((ASN1OctetString) seq.getObjectAt(1)).getOctets();
+    final BytesView tagged = (BytesView) ((ASN1OctetString) ((ASN1TaggedObject) seq.getObjectAt(6)).getObject()).getOctets();
+    assertSame(octets.array(), tagged.array());
+    assertEquals(data, octets);
+
+    // contents decoded again stay on the same array
+    final DEROctetString wrapped = new DEROctetString(encoded);
+    final ASN1OctetString outer = (ASN1OctetString) ASN1Primitive.fromBytes(wrapped.getEncoded(), true);
+    final ASN1Sequence inner = (ASN1Sequence) ASN1Primitive.fromBytes(outer.getOctets(), true);
+    assertSame(((BytesView) outer.getOctets()).array(),
+        ((BytesView) ((ASN1OctetString) inner.getObjectAt(1)).getOctets()).array());
+    assertEquals(sample(), inner);
+  }
+
+  @Test
+  public void testView(){
+    final BytesView view = new BytesView(new byte[]{9, 0, 1, 2, 3, 9}, 1, 4);
+    assertEquals(parseHex("00 01 02 03"), view);
+    assertEquals(parseHex("01 02"), view.subList(1, 3));
+    assertSame(view.array(), ((BytesView) view.subList(1, 3)).array());
+    assertArrayEquals(new byte[]{0, 1, 2, 3}, view.toByteArray());
+    assertEquals(view.hashCode(), parseHex("00 01 02 03").hashCode());
+  }
+
+  @Test
+  public void testReadAndSlice() throws IOException{
+    final Bytes bytes = parseHex("00 01 02 03 04 05 06 07 08 09");
+    try(final BytesInputStream in = new BytesInputStream(bytes)){
+      assertEquals(0, in.read());
+      final byte[] buf = new byte[3];
+      assertEquals(3, in.read(buf, 0, 3));
+      assertArrayEquals(new byte[]{1, 2, 3}, buf);
+      assertEquals(parseHex("04 05"), in.readSlice(2));
+      assertEquals(4, in.available());
+      assertEquals(1, in.skip(1));
+      assertEquals(7, in.read());
+      assertNull(in.readSlice(3));
+      assertEquals(parseHex("08 09"), in.readSlice(2));
+      assertEquals(-1, in.read(buf, 0, 3));
+      assertEquals(-1, in.read());
+    }
+  }
+}
@@ -29,9 +29,12 @@ package com.github.gv2011.asn1;
  */
 
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.text.SimpleDateFormat;
+import java.time.Instant;
 import java.util.SimpleTimeZone;
 
 import org.junit.Test;
@@ -122,4 +125,51 @@ public class UTCTimeTest {
     }
   }
 
+  @Test
+  public void testInstant() {
+    final ASN1UTCTime t = new ASN1UTCTime("020122122220-1000");
+
+    assertEquals(Instant.parse("2002-01-22T22:22:20Z"), t.getInstant());
+    assertEquals("2002-01-22T12:22:20-10:00", t.getOffsetDateTime().toString());
+    assertEquals(Instant.parse("1950-01-01T00:00:00Z"), new ASN1UTCTime("500101000000Z").getInstant());
+    assertEquals(Instant.parse("2049-12-31T23:59:59Z"), new ASN1UTCTime("491231235959Z").getInstant());
+
+    final Instant instant = Instant.parse("1999-12-31T23:59:59.999Z");
+    assertEquals("991231235959Z", new ASN1UTCTime(instant).toString());
+    assertEquals(instant.toEpochMilli() / 1000 * 1000, new ASN1UTCTime(instant.toEpochMilli()).getEpochMillis());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInstantOutOfRange() {
+    new ASN1UTCTime(Instant.parse("2050-01-01T00:00:00Z"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDay() {
+    new ASN1UTCTime("010229000000Z");
+  }
+
+  @Test
+  public void testCompare() {
+    final ASN1UTCTime t1999 = new ASN1UTCTime("991231235959Z");
+    final ASN1UTCTime t2000 = new ASN1UTCTime("000101000000Z");
+    final ASN1GeneralizedTime g2000 = new DERGeneralizedTime("20000101000000Z");
+    final ASN1GeneralizedTime g2000f = new DERGeneralizedTime("20000101000000.001Z");
+
+    assertTrue(t1999.compareTo(t2000) < 0);
+    assertTrue(t2000.compareTo(t1999) > 0);
+    assertEquals(0, t2000.compareTo(g2000));
+    assertEquals(0, g2000.compareTo(new DERGeneralizedTime("20000101000000.000Z")));
+    assertTrue(g2000.compareTo(g2000f) < 0);
+    assertTrue(g2000f.compareTo(t2000) > 0);
+    assertTrue(new DERGeneralizedTime("20000101000000.0011Z").compareTo(g2000f) > 0);
+
+    // non-canonical forms are compared by instant
+    assertEquals(0, new ASN1UTCTime("991231235959-0100").compareTo(new DERGeneralizedTime("20000101005959Z")));
+    assertTrue(new ASN1UTCTime("0001010000+0100").compareTo(t1999) < 0);
+
+    assertEquals(0, t2000.compareTo(Instant.parse("2000-01-01T00:00:00Z")));
+    assertTrue(g2000f.compareTo(Instant.parse("2000-01-01T00:00:00Z")) > 0);
+  }
+
 }